@@ -0,0 +1,64 @@
+package tiles;
+
+import java.util.Random;
+
+/**
+ * The fixed boards the benchmarks run on, so that every run, on every machine, times the same work.  Easy and medium
+ * boards are made by random walks back from the final board, using a Random with a fixed seed, and the hard boards
+ * are the two 3x3 boards that need the most moves of any, 31.
+ */
+public class BenchmarkCorpus {
+    static final long Seed = 20240611L;             // Seed for the random walks, never to be changed
+    static final int BoardsPerSet = 8;              // Number of boards in the easy and medium sets
+    static final int EasyWalkLength = 12;           // Random moves made for an easy board
+    static final int MediumWalkLength = 40;         // Random moves made for a medium board
+    static final String[] HardBoards = { "867254301", "647850321" };
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the 3x3 boards of a difficulty: easy, medium or hard
+    static Board[] boards( String difficulty)
+    {
+        if( difficulty.equals("easy")) {
+            return randomWalks( EasyWalkLength, Seed);
+        }
+        else if( difficulty.equals("medium")) {
+            return randomWalks( MediumWalkLength, Seed + 1);
+        }
+        else if( difficulty.equals("hard")) {
+            Board[] boards = new Board[ HardBoards.length];
+            for( int i = 0; i < boards.length; i++) {
+                boards[ i] = new Board( HardBoards[ i]);
+            }
+            return boards;
+        }
+        throw new IllegalArgumentException( "Unknown difficulty " + difficulty);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make BoardsPerSet boards, each by making walkLength random moves from the final board without undoing the
+    // move just made
+    private static Board[] randomWalks( int walkLength, long seed)
+    {
+        BoardLayout layout = BoardLayout.forDimension( Board.DefaultDimension);
+        Random randomGenerator = new Random( seed);
+        Board[] boards = new Board[ BoardsPerSet];
+        for( int i = 0; i < boards.length; i++) {
+            long packedBoard = layout.finalPackedBoard;
+            int previousBlank = NodeArena.NoMove;
+            for( int step = 0; step < walkLength; step++) {
+                int blankIndex = layout.blankIndexOf( packedBoard);
+                int[] neighbours = layout.neighbourSquares[ blankIndex];
+                int fromIndex;
+                do {
+                    fromIndex = neighbours[ randomGenerator.nextInt( neighbours.length)];
+                } while( fromIndex == previousBlank);
+                packedBoard = layout.applyMove( packedBoard, fromIndex);
+                previousBlank = blankIndex;
+            }
+            boards[ i] = new Board( layout, packedBoard);
+        }
+        return boards;
+    }
+}//end class BenchmarkCorpus
@@ -0,0 +1,71 @@
+package tiles;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time the Board operations the searches lean on: hashing, making a move and recomputing the heuristic value, and
+ * listing the possible moves.  Each call works on the next board of the medium set, or keeps moving one board, so
+ * the JIT cannot fold the work away.
+ */
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 3, time = 1)
+@Measurement( iterations = 5, time = 1)
+@Fork( 1)
+@State( Scope.Thread)
+public class BoardBenchmark {
+    private Board[] boards;         // Boards to hash, taken in turn
+    private int nextBoard;          // Index of the next board to hash
+    private Board movingBoard;      // Board that has a move made on it each call
+    private int nextMove;           // Counter used to choose which possible move to make
+
+
+    //-----------------------------------------------------------------------------------------
+    @Setup
+    public void setUp()
+    {
+        boards = BenchmarkCorpus.boards( "medium");
+        movingBoard = new Board( boards[ 0]);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    @Benchmark
+    public int hashCodeOfBoard()
+    {
+        nextBoard = (nextBoard + 1) % boards.length;
+        return boards[ nextBoard].hashCode();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Move one of the pieces next to the blank by its number, then recompute the heuristic value from scratch
+    @Benchmark
+    public int movePieceAndFindHeuristicValue()
+    {
+        int[] neighbours = movingBoard.getLayout().neighbourSquares[ movingBoard.getBlankIndex()];
+        int pieceToMove = movingBoard.getPieceAt( neighbours[ nextMove++ % neighbours.length]);
+        movingBoard.movePiece( pieceToMove);
+        movingBoard.findHeuristicValue();
+        return movingBoard.getHeuristicValue();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    @Benchmark
+    public Object findPossibleMoves()
+    {
+        nextBoard = (nextBoard + 1) % boards.length;
+        return boards[ nextBoard].findPossibleMoves();
+    }
+}//end class BoardBenchmark
@@ -0,0 +1,78 @@
+package tiles;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time node expansion in the A* SearchTree: generating and storing the children of the current node, then taking
+ * the next node off the open list.  Each call makes Expansions expansions in a new tree for a 31-move board, which is
+ * fewer than the board needs with any heuristic here, so the score is the time per expansion.  The tree is built
+ * before each call, outside the timing, so the cost of its first arena chunk and index is not counted.
+ * With a batchSize above 1 the tree expands blocks of nodes with the same priority together.
+ */
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.NANOSECONDS)
+@Warmup( iterations = 3, time = 1)
+@Measurement( iterations = 5, time = 1)
+@Fork( 1)
+@State( Scope.Thread)
+public class SearchTreeBenchmark {
+    static final int Expansions = 1000;     // Nodes expanded by each call
+
+    @Param( { "manhattan", "linear"})
+    public String heuristicName;
+
+    @Param( { "1", "16"})
+    public int batchSize;
+
+    private Board startBoard;
+    private Heuristic heuristic;
+    private SearchTree theSearchTree;       // New tree for each call
+
+
+    //-----------------------------------------------------------------------------------------
+    @Setup
+    public void setUp()
+    {
+        startBoard = BenchmarkCorpus.boards( "hard")[ 0];
+        TilesDriver theDriver = new TilesDriver();
+        theDriver.readOptions( new String[] { "--heuristic=" + heuristicName});
+        heuristic = theDriver.createHeuristic();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    @Setup( Level.Invocation)
+    public void buildTree()
+    {
+        theSearchTree = new SearchTree( startBoard, SearchTree.OptimalWeight, heuristic);
+        theSearchTree.setBatchSize( batchSize);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    @Benchmark
+    @OperationsPerInvocation( Expansions)
+    public int expandNodes()
+    {
+        for( int expanded = 0; expanded < Expansions; ) {
+            expanded += theSearchTree.generateAndStoreNextMoveNodes();
+            if( theSearchTree.findNextBestMove() == NodeArena.NoNode) {
+                break;
+            }
+        }
+        return theSearchTree.sizeOfAllNodes;
+    }
+}//end class SearchTreeBenchmark
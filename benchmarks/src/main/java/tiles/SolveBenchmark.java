@@ -0,0 +1,67 @@
+package tiles;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time whole solves of every board in one set of the BenchmarkCorpus, with each search engine that needs no data
+ * files.  The engine and heuristic names are the same as TilesDriver's --engine and --heuristic options, and the
+ * solver is made by TilesDriver in the same way, so the timings are for exactly what the driver runs.
+ */
+@BenchmarkMode( Mode.AverageTime)
+@OutputTimeUnit( TimeUnit.MILLISECONDS)
+@Warmup( iterations = 3, time = 2)
+@Measurement( iterations = 5, time = 2)
+@Fork( 1)
+@State( Scope.Thread)
+public class SolveBenchmark {
+    @Param( { "easy", "medium", "hard"})
+    public String difficulty;
+
+    @Param( { "astar", "idastar", "bidirectional", "parallel", "smastar"})
+    public String engine;
+
+    @Param( { "manhattan"})
+    public String heuristicName;
+
+    private Board[] boards;
+    private PuzzleSolver theSolver;
+
+
+    //-----------------------------------------------------------------------------------------
+    @Setup
+    public void setUp()
+    {
+        boards = BenchmarkCorpus.boards( difficulty);
+        TilesDriver theDriver = new TilesDriver();
+        theDriver.readOptions( new String[] { "--engine=" + engine, "--heuristic=" + heuristicName});
+        theSolver = theDriver.createSolver();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Solve every board in the set, returning the total number of moves so the solves are not optimized away
+    @Benchmark
+    public int solveAll()
+    {
+        int totalMoves = 0;
+        for( Board startBoard : boards) {
+            Solution theSolution = theSolver.solve( startBoard);
+            if( ! theSolution.isSolved()) {
+                throw new IllegalStateException( "No solution found for\n" + startBoard);
+            }
+            totalMoves += theSolution.getNumberOfMoves();
+        }
+        return totalMoves;
+    }
+}//end class SolveBenchmark
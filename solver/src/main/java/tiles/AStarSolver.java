@@ -0,0 +1,87 @@
+package tiles;
+
+import java.nio.file.Path;
+
+/**
+ * Solve the puzzle with A*, or weighted A* when the weight is more than 1, by building a SearchTree from the
+ * starting board and running it until it reaches the final board.  Given a SolutionCache, each search finishes early
+ * through any board whose distance is already cached.  Given a checkpoint file, each search is saved to it every so
+ * often and resumed from it, so this should only be used for one solve at a time.
+ */
+public class AStarSolver implements PuzzleSolver {
+    private double weight;          // Weight on the heuristic, where 1 gives the shortest solution
+    private Heuristic heuristic;    // Estimate of the moves left from each board
+    private SolutionCache solutionCache;    // Cache of exact distances to finish early from, or null
+    private Path checkpointFile;            // File to save the search to and resume it from, or null
+    private long checkpointIntervalMillis;  // Time between saves of the search
+    private int batchSize = 1;              // Most nodes with the same priority each search expands together
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the Manhattan distance heuristic
+    public AStarSolver( double theWeight) {
+        this( theWeight, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the heuristic to use
+    public AStarSolver( double theWeight, Heuristic theHeuristic) {
+        this( theWeight, theHeuristic, null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the heuristic to use, and a cache of exact distances to look up boards in
+    public AStarSolver( double theWeight, Heuristic theHeuristic, SolutionCache theSolutionCache) {
+        weight = theWeight;
+        heuristic = theHeuristic;
+        solutionCache = theSolutionCache;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Save each search to a file at the given interval, and resume a search from the file if it was saved there
+    public void setCheckpoint( Path theCheckpointFile, long intervalMillis)
+    {
+        checkpointFile = theCheckpointFile;
+        checkpointIntervalMillis = intervalMillis;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Expand up to this many nodes with the same priority together in each search, as SearchTree describes
+    public void setBatchSize( int theBatchSize)
+    {
+        if( theBatchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1, not " + theBatchSize);
+        }
+        batchSize = theBatchSize;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        if( ! startBoard.getLayout().isPacked()) {
+            throw new IllegalArgumentException("A* needs a packed board, of at most " +
+                                               BoardLayout.MaximumPackedDimension + "x" +
+                                               BoardLayout.MaximumPackedDimension);
+        }
+        SearchTree theSearchTree = new SearchTree( startBoard, weight, heuristic);
+        theSearchTree.setSolutionCache( solutionCache);
+        theSearchTree.setBatchSize( batchSize);
+        if( checkpointFile != null) {
+            theSearchTree.setCheckpoint( new SearchCheckpoint( checkpointFile, checkpointIntervalMillis));
+        }
+        Solution theSolution = theSearchTree.solve();
+        theSolution.setSuboptimalityBound( weight);
+        return theSolution;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Only A* proper finds the shortest solution.  Weighted A* can find a longer one.
+    public boolean findsShortestSolution()
+    {
+        return weight == SearchTree.OptimalWeight;
+    }
+}//end class AStarSolver
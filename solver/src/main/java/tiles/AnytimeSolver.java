@@ -0,0 +1,365 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * Solve the puzzle with ARA*, anytime repairing A*, which finds a first solution fast and then better ones for as
+ * long as it is given, so a caller with a deadline always gets the best solution that could be found in time.
+ *
+ * It runs weighted A* searches with a falling weight on the heuristic.  The first, with a high weight, reaches the
+ * final board after expanding few boards, but its solution can be up to weight times longer than the shortest.  Each
+ * later search lowers the weight by the step and carries on from where the last one stopped, instead of starting
+ * again: every board already reached keeps its cost, and only the boards on the open list, plus those whose cost
+ * fell after they were expanded, are looked at again.  Each search expands a board at most once, and stops as soon
+ * as no board on the open list could lead to a better solution at its weight.
+ *
+ * After each search the solution's suboptimality bound is worked out, as its number of moves over the lowest g + h
+ * of the boards still to look at, which is never more than the weight.  Each solution better than the last, or with
+ * a tighter bound, is passed to the ImprovementListener if there is one.  The search stops when the bound reaches 1,
+ * meaning the solution is a shortest one, or when the deadline passes, and the best solution so far is returned.  If
+ * none has been found by then, the closest board found is returned instead.
+ */
+public class AnytimeSolver implements PuzzleSolver {
+    static final double DefaultInitialWeight = 3.0;     // Weight on the heuristic for the first search
+    static final double DefaultWeightStep = 0.5;        // Amount the weight is lowered by for each later search
+    static final long DefaultTimeLimitMillis = 1000;    // Time allowed for a solve when none is given
+    static final int CheckClockEveryExpansions = 256;   // Expansions between looks at the clock, a power of 2
+
+    // States of a node in the current search
+    static final byte Open = 0;         // On the open list
+    static final byte Closed = 1;       // Expanded by the current search
+    static final byte Inconsistent = 2; // Expanded by the current search, but reached more cheaply since then
+    static final byte Visited = 3;      // Expanded by an earlier search, and not reached more cheaply since
+
+    private double initialWeight;       // Weight on the heuristic for the first search
+    private double weightStep;          // Amount the weight is lowered by for each later search
+    private long timeLimitMillis;       // Time allowed for each solve
+    private Heuristic heuristic;        // Estimate of the moves left from each board
+    private ImprovementListener listener;   // Told about each better solution, or null
+
+
+    //-----------------------------------------------------------------------------------------
+    // Interface for being given each better solution as soon as it is found, with its suboptimality bound
+    public interface ImprovementListener
+    {
+        void solutionImproved( Solution theSolution);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the time allowed for each solve, using the default weights and the Manhattan distance heuristic
+    public AnytimeSolver( long theTimeLimitMillis) {
+        this( theTimeLimitMillis, DefaultInitialWeight, DefaultWeightStep, new ManhattanHeuristic(), null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the time allowed for each solve, the first weight, the step to lower it by, the heuristic, and
+    // a listener to tell about each better solution, which can be null
+    public AnytimeSolver( long theTimeLimitMillis, double theInitialWeight, double theWeightStep,
+                          Heuristic theHeuristic, ImprovementListener theListener) {
+        if( theInitialWeight < SearchTree.OptimalWeight || theWeightStep <= 0) {
+            throw new IllegalArgumentException("Initial weight must be at least 1 and the step more than 0, not " +
+                                               theInitialWeight + " and " + theWeightStep);
+        }
+        timeLimitMillis = theTimeLimitMillis;
+        initialWeight = theInitialWeight;
+        weightStep = theWeightStep;
+        heuristic = theHeuristic;
+        listener = theListener;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        return solve( startBoard, System.nanoTime() + timeLimitMillis * 1_000_000, listener);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Solve with a deadline on the System.nanoTime() clock, telling the listener, which can be null, about each better
+    // solution.  Return the best solution found by the deadline.
+    public Solution solve( Board startBoard, long deadlineNanos, ImprovementListener theListener)
+    {
+        return new Search( startBoard, deadlineNanos, theListener).run();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Solutions are only known to be shortest when there was time to lower the weight to 1
+    public boolean findsShortestSolution()
+    {
+        return false;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class holding the state of one solve
+    private class Search
+    {
+        Board startBoard;
+        BoardLayout layout;
+        long deadlineNanos;
+        ImprovementListener theListener;
+        NodeArena nodes = new NodeArena();
+        NodeIndex allNodes = new NodeIndex();
+        byte[] states = new byte[ NodeArena.ChunkSize];     // State of each node, by handle
+        OpenList openList = new HeapOpenList();
+        int[] inconsistentNodes = new int[ 64];     // Nodes reached more cheaply after this search expanded them
+        int inconsistentCount = 0;
+        int[] closedNodes = new int[ 64];           // Nodes expanded by this search
+        int closedCount = 0;
+        int lowestEstimate;             // Lowest g + h of the nodes open or inconsistent, found by findLowestEstimate()
+        int weightTimesScale;           // Weight of the current search, times SearchTree.WeightScale
+        int rootNode;
+        int goalNode = NodeArena.NoNode;
+        int closestNode;                // Node with the lowest heuristic value, if there is no solution
+        boolean isOutOfTime = false;
+        Solution bestSolution;          // Best solution published so far, or null
+        byte[] bestMoves;               // Moves of the best solution, kept since later searches can change the parents
+        SearchStats stats = new SearchStats( "anytime");
+
+        Search( Board theStartBoard, long theDeadlineNanos, ImprovementListener aListener) {
+            startBoard = theStartBoard;
+            layout = startBoard.getLayout();
+            deadlineNanos = theDeadlineNanos;
+            theListener = aListener;
+        }
+
+        //-------------------------------------------------------------------------------------
+        Solution run()
+        {
+            if( ! startBoard.getLayout().isPacked()) {
+                throw new IllegalArgumentException("ARA* needs a packed board, of at most " +
+                                                   BoardLayout.MaximumPackedDimension + "x" +
+                                                   BoardLayout.MaximumPackedDimension);
+            }
+            if( ! startBoard.isSolvable()) {
+                return stats.finish( new Solution( startBoard, startBoard, 0));
+            }
+            long rootPackedBoard = startBoard.getPackedValue();
+            rootNode = addNode( rootPackedBoard, NodeArena.NoNode, 0, NodeArena.NoMove,
+                                heuristic.estimate( layout, rootPackedBoard));
+            openList.add( rootNode, 0);
+            closestNode = rootNode;
+
+            double weight = initialWeight;
+            double bound = Double.MAX_VALUE;        // Suboptimality bound of the best solution so far
+            while( true) {
+                weightTimesScale = (int) Math.round( weight * SearchTree.WeightScale);
+                rebuildOpenList();
+                improvePath();
+                if( goalNode != NodeArena.NoNode) {
+                    // Only a search that finished guarantees its weight, but the boards left to look at give a bound
+                    // at any time.  A solution found by a search cut short is no longer than the last one.
+                    bound = Math.min( isOutOfTime ? bound : weight, findSuboptimalityBound());
+                    publish( bound);
+                }
+                if( isOutOfTime || bound <= SearchTree.OptimalWeight || weight <= SearchTree.OptimalWeight) {
+                    break;
+                }
+                weight = Math.max( weight - weightStep, SearchTree.OptimalWeight);
+            }
+
+            stats.noteClosedSetSize( nodes.size());
+            if( bestSolution == null) {
+                return stats.finish( new Solution( startBoard, new Board( layout, nodes.getBoard( closestNode)),
+                                                   (int) stats.nodesExpanded));
+            }
+            Solution theSolution = new Solution( startBoard, bestMoves, (int) stats.nodesExpanded);
+            theSolution.setSuboptimalityBound( bestSolution.getSuboptimalityBound());
+            return stats.finish( theSolution);
+        }//end run()
+
+        //-------------------------------------------------------------------------------------
+        int priorityOf( int node)
+        {
+            return nodes.getCost( node) * SearchTree.WeightScale + weightTimesScale * nodes.getHeuristicValue( node);
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Start a search at a new weight: forget which nodes the last search expanded, and put the nodes left on the
+        // open list and those reached more cheaply after they were expanded on a new open list, at their priorities
+        // for the new weight.  Only those nodes are looked at, not every node reached so far.
+        void rebuildOpenList()
+        {
+            for( int i = 0; i < closedCount; i++) {
+                if( states[ closedNodes[ i]] == Closed) {
+                    states[ closedNodes[ i]] = Visited;
+                }
+            }
+            closedCount = 0;
+            openList.forEachEntry( (node, priority) -> {
+                if( states[ node] == Open) {        // Once each, leaving behind the entries of nodes reached again
+                    states[ node] = Inconsistent;
+                    inconsistentNodes = append( inconsistentNodes, inconsistentCount++, node);
+                }
+            });
+            openList = new HeapOpenList();
+            for( int i = 0; i < inconsistentCount; i++) {
+                int node = inconsistentNodes[ i];
+                states[ node] = Open;
+                openList.add( node, priorityOf( node));
+            }
+            inconsistentCount = 0;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Expand the best node on the open list until no node on it has a lower priority than the final board's cost,
+        // so no better solution can be found at this weight, or until the deadline passes
+        void improvePath()
+        {
+            while( ! openList.isEmpty()) {
+                if( (stats.nodesExpanded & (CheckClockEveryExpansions - 1)) == 0 &&
+                    System.nanoTime() - deadlineNanos >= 0) {
+                    isOutOfTime = true;
+                    return;
+                }
+                int theNode = openList.remove();
+                if( states[ theNode] != Open) {
+                    continue;       // Left behind when the node was reached more cheaply
+                }
+                if( goalNode != NodeArena.NoNode &&
+                    priorityOf( theNode) >= nodes.getCost( goalNode) * SearchTree.WeightScale) {
+                    openList.add( theNode, priorityOf( theNode));
+                    return;
+                }
+                states[ theNode] = Closed;
+                closedNodes = append( closedNodes, closedCount++, theNode);
+                expand( theNode);
+                stats.nodesExpanded++;
+                stats.noteOpenListSize( openList.size());
+            }
+        }//end improvePath()
+
+        //-------------------------------------------------------------------------------------
+        // Reach each neighbouring board, adding it or lowering its cost if this path to it is cheaper
+        void expand( int theNode)
+        {
+            long packedBoard = nodes.getBoard( theNode);
+            int heuristicValue = nodes.getHeuristicValue( theNode);
+            int newCost = nodes.getCost( theNode) + 1;
+            for( int fromIndex : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+                stats.nodesGenerated++;
+                int existingNode = allNodes.get( newPackedBoard);
+                if( existingNode == NodeArena.NoNode) {
+                    int newHeuristicValue =
+                        heuristic.estimateAfterMove( layout, packedBoard, heuristicValue, fromIndex);
+                    int theNewNode = addNode( newPackedBoard, theNode, newCost, fromIndex, newHeuristicValue);
+                    openList.add( theNewNode, priorityOf( theNewNode));
+                    if( newHeuristicValue < nodes.getHeuristicValue( closestNode)) {
+                        closestNode = theNewNode;
+                    }
+                }
+                else if( newCost < nodes.getCost( existingNode)) {
+                    nodes.setParent( existingNode, theNode);
+                    nodes.setCost( existingNode, newCost);
+                    nodes.setMove( existingNode, fromIndex);
+                    stats.nodesReopened++;
+                    if( states[ existingNode] == Closed) {
+                        // Already expanded by this search, so it waits for the next one
+                        states[ existingNode] = Inconsistent;
+                        inconsistentNodes = append( inconsistentNodes, inconsistentCount++, existingNode);
+                    }
+                    else if( states[ existingNode] != Inconsistent) {      // Else already waiting for the next one
+                        states[ existingNode] = Open;
+                        openList.add( existingNode, priorityOf( existingNode));
+                    }
+                }
+                else {
+                    stats.duplicatesRejected++;
+                }
+            }
+        }//end expand()
+
+        //-------------------------------------------------------------------------------------
+        // Store a new open node, and note it if its board is the final board
+        int addNode( long packedBoard, int parent, int cost, int move, int heuristicValue)
+        {
+            int theNode = nodes.add( packedBoard, parent, cost, move, heuristicValue);
+            allNodes.put( packedBoard, theNode);
+            if( theNode == states.length) {
+                states = Arrays.copyOf( states, 2 * states.length);
+            }
+            states[ theNode] = Open;
+            if( packedBoard == layout.finalPackedBoard) {
+                goalNode = theNode;
+            }
+            return theNode;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // The solution has at most its cost over the lowest g + h of any node still open or inconsistent times as many
+        // moves as the shortest one, since a shorter solution would have to pass through one of them
+        double findSuboptimalityBound()
+        {
+            int lowestEstimate = findLowestEstimate();
+            int goalCost = nodes.getCost( goalNode);
+            return (lowestEstimate >= goalCost) ? SearchTree.OptimalWeight : (double) goalCost / lowestEstimate;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Get the lowest g + h of any node still open or inconsistent, looking only at the open list and the
+        // inconsistent nodes, which are the nodes the next search starts from anyway
+        int findLowestEstimate()
+        {
+            lowestEstimate = Integer.MAX_VALUE;
+            openList.forEachEntry( (node, priority) -> {
+                if( states[ node] == Open) {
+                    lowestEstimate = Math.min( lowestEstimate, nodes.getCost( node) + nodes.getHeuristicValue( node));
+                }
+            });
+            for( int i = 0; i < inconsistentCount; i++) {
+                int node = inconsistentNodes[ i];
+                lowestEstimate = Math.min( lowestEstimate, nodes.getCost( node) + nodes.getHeuristicValue( node));
+            }
+            return lowestEstimate;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Tell the listener about the solution if it is shorter than the last one, or has a tighter bound
+        void publish( double bound)
+        {
+            byte[] moves = findSolutionMoves( goalNode);
+            if( bestSolution != null && moves.length >= bestSolution.getNumberOfMoves() &&
+                bound >= bestSolution.getSuboptimalityBound()) {
+                return;
+            }
+            bestMoves = moves;
+            bestSolution = new Solution( startBoard, moves, (int) stats.nodesExpanded);
+            bestSolution.setSuboptimalityBound( bound);
+            if( theListener != null) {
+                theListener.solutionImproved( bestSolution);
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Walk back through the parents from the final board, filling in the moves from the end.  A node whose cost
+        // fell after it was expanded leaves its children's costs too high until the next search, so the path can be
+        // shorter than the final board's cost, and is counted first.
+        byte[] findSolutionMoves( int endingNode)
+        {
+            int pathLength = 0;
+            for( int theNode = endingNode; theNode != rootNode; theNode = nodes.getParent( theNode)) {
+                pathLength++;
+            }
+            byte[] solutionMoves = new byte[ pathLength];
+            int theNode = endingNode;
+            for( int i = solutionMoves.length - 1; i >= 0; i--) {
+                solutionMoves[ i] = (byte) nodes.getMove( theNode);
+                theNode = nodes.getParent( theNode);
+            }
+            return solutionMoves;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Put a node at the end of a list holding count nodes, making the list longer if it is full
+        int[] append( int[] list, int count, int node)
+        {
+            if( count == list.length) {
+                list = Arrays.copyOf( list, 2 * count);
+            }
+            list[ count] = node;
+            return list;
+        }
+    }//end class Search
+}//end class AnytimeSolver
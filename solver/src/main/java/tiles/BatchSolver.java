@@ -0,0 +1,198 @@
+package tiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Solve many boards at once on a pool of worker threads.  Boards are read one per line, in the same format as
+ * the Board(String) constructor takes, and each is solved by the same PuzzleSolver, which keeps the state of each
+ * solve separate.  A result line is written for each board, either in the order the boards were read or in the
+ * order they finish.  Only a few boards per worker are read ahead, so any amount of input can be streamed through.
+ *
+ * Each result line is the board string followed by the number of moves and the pieces to move, or by "impossible".
+ * A board that can be solved but was not, as when the anytime engine's deadline passes first, is followed by "timeout".
+ * Boards larger than 3x3 should have their pieces separated by commas, so result lines can still be split at spaces.
+ *
+ * Usage: java tiles.BatchSolver [--workers=n] [--engine=e] [--weight=w] [--heuristic=h] [--cache=n] [--unordered] [file]
+ * The engine, weight, heuristic and cache options are the same as for TilesDriver, but not --checkpoint, since the
+ * solves running at once would all save to the same file.  Boards are read from standard input if no file is given,
+ * and the number of workers defaults to the number of processors.  With a cache, boards that pass through positions
+ * already solved finish early, and the cache counts are written to standard error.
+ */
+public class BatchSolver {
+    static final int BoardsPerWorker = 4;       // Number of boards read ahead for each worker thread
+
+    private PuzzleSolver theSolver;     // Solver shared by all the workers
+    private int numberOfWorkers;        // Number of threads solving boards
+    private boolean inInputOrder;       // Write results in input order, rather than as they finish
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public BatchSolver( PuzzleSolver aSolver, int theNumberOfWorkers, boolean resultsInInputOrder) {
+        theSolver = aSolver;
+        numberOfWorkers = theNumberOfWorkers;
+        inInputOrder = resultsInInputOrder;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Reuse the driver's option handling for the engine and weight
+        TilesDriver theDriver = new TilesDriver();
+        int numberOfWorkers = Runtime.getRuntime().availableProcessors();
+        boolean inInputOrder = true;
+        String fileName = null;
+        for( String option : args) {
+            if( option.startsWith("--workers=")) {
+                numberOfWorkers = Integer.parseInt( option.substring( "--workers=".length()));
+            }
+            else if( option.equals("--unordered")) {
+                inInputOrder = false;
+            }
+            else if( option.startsWith("--")) {
+                theDriver.readOptions( new String[] { option});
+            }
+            else {
+                fileName = option;
+            }
+        }
+        if( theDriver.checkpointFile != null) {
+            throw new IllegalArgumentException("--checkpoint saves a single solve, and cannot be used for a batch");
+        }
+
+        BatchSolver theBatchSolver = new BatchSolver( theDriver.createSolver(), numberOfWorkers, inInputOrder);
+        try( BufferedReader input = (fileName == null) ? new BufferedReader( new InputStreamReader( System.in))
+                                                       : Files.newBufferedReader( Paths.get( fileName))) {
+            theBatchSolver.solveAll( input, System.out::println);
+        }
+        if( theDriver.solutionCache != null) {
+            System.err.println( theDriver.solutionCache);
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Solve every board read from the input, passing each result line to the output.  Blank lines are skipped.
+    public void solveAll( BufferedReader input, Consumer< String> output) throws IOException, InterruptedException
+    {
+        ExecutorService workers = Executors.newFixedThreadPool( numberOfWorkers);
+        int maximumBoardsInProgress = numberOfWorkers * BoardsPerWorker;
+        try {
+            if( inInputOrder) {
+                solveInInputOrder( input, output, workers, maximumBoardsInProgress);
+            }
+            else {
+                solveAsCompleted( input, output, workers, maximumBoardsInProgress);
+            }
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }//end solveAll()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Keep the results in a queue in input order, and write out the oldest whenever too many are in progress
+    private void solveInInputOrder( BufferedReader input, Consumer< String> output,
+                                    ExecutorService workers, int maximumBoardsInProgress)
+            throws IOException, InterruptedException
+    {
+        ArrayDeque< Future< String>> results = new ArrayDeque<>();
+        String boardValues;
+        while( (boardValues = input.readLine()) != null) {
+            if( boardValues.trim().isEmpty()) {
+                continue;
+            }
+            final String theBoardValues = boardValues.trim();
+            results.add( workers.submit( () -> solveOneBoard( theBoardValues)));
+            if( results.size() >= maximumBoardsInProgress) {
+                output.accept( resultOf( results.remove()));
+            }
+        }
+        while( ! results.isEmpty()) {
+            output.accept( resultOf( results.remove()));
+        }
+    }//end solveInInputOrder()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Write out each result as soon as it is finished, waiting for one whenever too many are in progress
+    private void solveAsCompleted( BufferedReader input, Consumer< String> output,
+                                   ExecutorService workers, int maximumBoardsInProgress)
+            throws IOException, InterruptedException
+    {
+        CompletionService< String> results = new ExecutorCompletionService<>( workers);
+        int boardsInProgress = 0;
+        String boardValues;
+        while( (boardValues = input.readLine()) != null) {
+            if( boardValues.trim().isEmpty()) {
+                continue;
+            }
+            final String theBoardValues = boardValues.trim();
+            results.submit( () -> solveOneBoard( theBoardValues));
+            boardsInProgress++;
+            if( boardsInProgress >= maximumBoardsInProgress) {
+                output.accept( resultOf( results.take()));
+                boardsInProgress--;
+            }
+        }
+        for( ; boardsInProgress > 0; boardsInProgress--) {
+            output.accept( resultOf( results.take()));
+        }
+    }//end solveAsCompleted()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Solve one board, returning its result line
+    String solveOneBoard( String boardValues)
+    {
+        return resultLine( boardValues, theSolver);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Solve one board with the given solver, returning its result line.  A bad board string gives an error line
+    // instead of stopping the batch.
+    static String resultLine( String boardValues, PuzzleSolver theSolver)
+    {
+        try {
+            Board theBoard = new Board( boardValues);
+            Solution theSolution = theSolver.solve( theBoard);
+            if( ! theSolution.isSolved()) {
+                return boardValues + (theBoard.isSolvable() ? " timeout" : " impossible");
+            }
+
+            StringBuilder resultLine = new StringBuilder( boardValues);
+            resultLine.append( ' ').append( theSolution.getNumberOfMoves());
+            theSolution.movedPieceStream().forEach( piece -> resultLine.append( ' ').append( piece));
+            return resultLine.toString();
+        }
+        catch( RuntimeException e) {
+            return boardValues + " error: " + e;
+        }
+    }//end resultLine()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Wait for a result line from a worker
+    private static String resultOf( Future< String> result) throws InterruptedException
+    {
+        try {
+            return result.get();
+        }
+        catch( ExecutionException e) {
+            throw new IllegalStateException( "Batch worker failed", e.getCause());
+        }
+    }
+}//end class BatchSolver
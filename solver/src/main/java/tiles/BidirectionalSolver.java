@@ -0,0 +1,161 @@
+package tiles;
+
+/**
+ * Solve the puzzle by breadth-first search from both ends at once: forwards from the starting board and backwards
+ * from the final board.  Every move can be undone, so the backwards search uses the same moves.  The side with
+ * the smaller frontier is grown by one full layer at a time, and when a board is reached that the other side has
+ * already seen, the two paths are joined.  The layer is finished first, to be sure the shortest joined path is
+ * the one kept, so the solution has the fewest possible moves.
+ *
+ * Each side only has to search about half the solution length deep, so far fewer boards are expanded than by a
+ * search from one end, and no heuristic is needed.
+ */
+public class BidirectionalSolver implements PuzzleSolver {
+    static final int Forwards = 0;      // Side searching from the starting board
+    static final int Backwards = 1;     // Side searching from the final board
+
+    // Private inner class holding the search state of one side.  Nodes are added to the arena one layer after
+    // another, so each layer is a range of handles and needs no separate frontier list.
+    private class SearchSide
+    {
+        NodeArena nodes = new NodeArena();      // All boards reached from this side
+        NodeIndex allNodes = new NodeIndex();   // Node for each board reached from this side
+        int layerStart = 0;                     // Handle of the first node in the layer to expand next
+        int depth = 0;                          // Number of moves from this side's root to that layer
+
+        SearchSide( long rootPackedBoard) {
+            int rootNode = nodes.add( rootPackedBoard, NodeArena.NoNode, 0, NodeArena.NoMove, 0);
+            allNodes.put( rootPackedBoard, rootNode);
+        }
+
+        int frontierSize() {
+            return nodes.size() - layerStart;
+        }
+    }
+
+    // State of the solve in progress, which belongs to a copy of the solver made for each solve
+    private BoardLayout layout;         // Tables for the size of board being solved
+    private SearchSide[] sides;
+    private int bestLength;             // Number of moves in the shortest joined path found so far
+    private int bestForwardNode;        // Node on the forwards side where that path meets the backwards side
+    private int bestBackwardNode;       // Node on the backwards side where it meets
+    private SearchStats stats;      // Counts for the solve, adding up both sides
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        // Use a new copy of this solver to hold the search state, so solves on different threads stay apart
+        return new BidirectionalSolver().solveFrom( startBoard);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    private Solution solveFrom( Board startBoard)
+    {
+        if( ! startBoard.getLayout().isPacked()) {
+            throw new IllegalArgumentException("Bidirectional search needs a packed board, of at most " +
+                                               BoardLayout.MaximumPackedDimension + "x" +
+                                               BoardLayout.MaximumPackedDimension);
+        }
+        layout = startBoard.getLayout();
+        sides = new SearchSide[] { new SearchSide( startBoard.getPackedValue()), new SearchSide( layout.finalPackedBoard) };
+        stats = new SearchStats( "bidirectional");
+        bestLength = Integer.MAX_VALUE;
+
+        if( ! startBoard.isSolvable()) {
+            return finish( new Solution( startBoard, startBoard, 0));
+        }
+
+        // The start board may already be the final board
+        if( startBoard.getPackedValue() == layout.finalPackedBoard) {
+            return stats.finish( new Solution( startBoard, new byte[ 0], 0));
+        }
+
+        // Grow the side with the smaller frontier until the two sides meet, or one side runs out of boards
+        while( bestLength == Integer.MAX_VALUE) {
+            int side = sides[ Forwards].frontierSize() <= sides[ Backwards].frontierSize() ? Forwards : Backwards;
+            if( sides[ side].frontierSize() == 0) {
+                // Every board reachable from this side has been seen without meeting the other side
+                return finish( new Solution( startBoard, startBoard, (int) stats.nodesExpanded));
+            }
+            expandLayer( side);
+        }
+
+        return finish( new Solution( startBoard, joinPaths(), (int) stats.nodesExpanded));
+    }//end solveFrom()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Attach the statistics for the solve to its solution, with the boards held by both sides
+    private Solution finish( Solution theSolution)
+    {
+        stats.noteClosedSetSize( sides[ Forwards].nodes.size() + sides[ Backwards].nodes.size());
+        return stats.finish( theSolution);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Expand every node in the next layer of one side, checking each new board against the other side
+    private void expandLayer( int side)
+    {
+        SearchSide thisSide = sides[ side];
+        SearchSide otherSide = sides[ 1 - side];
+        int layerEnd = thisSide.nodes.size();
+        int newDepth = thisSide.depth + 1;
+        stats.noteOpenListSize( sides[ Forwards].frontierSize() + sides[ Backwards].frontierSize());
+
+        for( int theNode = thisSide.layerStart; theNode < layerEnd; theNode++) {
+            long packedBoard = thisSide.nodes.getBoard( theNode);
+            stats.nodesExpanded++;
+            for( int fromIndex : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+                stats.nodesGenerated++;
+                if( thisSide.allNodes.get( newPackedBoard) != NodeArena.NoNode) {
+                    stats.duplicatesRejected++;
+                    continue;
+                }
+                int theNewNode = thisSide.nodes.add( newPackedBoard, theNode, newDepth, fromIndex, 0);
+                thisSide.allNodes.put( newPackedBoard, theNewNode);
+
+                // Keep the shortest path through a board the other side has already reached
+                int meetingNode = otherSide.allNodes.get( newPackedBoard);
+                if( meetingNode != NodeArena.NoNode && newDepth + otherSide.nodes.getCost( meetingNode) < bestLength) {
+                    bestLength = newDepth + otherSide.nodes.getCost( meetingNode);
+                    bestForwardNode = side == Forwards ? theNewNode : meetingNode;
+                    bestBackwardNode = side == Forwards ? meetingNode : theNewNode;
+                }
+            }
+        }
+
+        thisSide.layerStart = layerEnd;
+        thisSide.depth = newDepth;
+    }//end expandLayer()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Join the path from the start board to the meeting board with the path from there to the final board
+    private byte[] joinPaths()
+    {
+        NodeArena forwardNodes = sides[ Forwards].nodes;
+        NodeArena backwardNodes = sides[ Backwards].nodes;
+        byte[] moves = new byte[ bestLength];
+
+        // The forwards moves are found walking back from the meeting board towards the start
+        int forwardLength = forwardNodes.getCost( bestForwardNode);
+        int theNode = bestForwardNode;
+        for( int i = forwardLength - 1; i >= 0; i--) {
+            moves[ i] = (byte) forwardNodes.getMove( theNode);
+            theNode = forwardNodes.getParent( theNode);
+        }
+
+        // Walking back along the backwards side goes towards the final board.  Each step undoes the backwards
+        // move, which means moving the piece into the square where the parent board had its blank.
+        theNode = bestBackwardNode;
+        for( int i = forwardLength; i < bestLength; i++) {
+            theNode = backwardNodes.getParent( theNode);
+            moves[ i] = (byte) layout.blankIndexOf( backwardNodes.getBoard( theNode));
+        }
+        return moves;
+    }//end joinPaths()
+}//end class BidirectionalSolver
@@ -0,0 +1,350 @@
+package tiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+
+/**
+ * A board of any size from 2x2 to 5x5, with the tables for its size kept in a shared BoardLayout.  Boards of up to
+ * 4x4 are stored packed into a single long, using 4 bits per square with square 0 in the lowest bits, so that a
+ * move is just a few shifts and masks on the packed value and never needs to allocate anything.  Larger boards
+ * do not fit, and keep one byte per square instead.  The index of the blank square is cached either way.
+ */
+public class Board {
+    private BoardLayout layout;  // Tables for boards of this size
+    private long packedBoard;    // Board pieces, 4 bits per square, if the layout is packed
+    private byte[] squares;      // Board pieces, one per square, if the layout is too large to pack
+    private int blankIndex;      // Index of the blank square
+    private int heuristicValue;  // Estimate of distance to final ordered board configuration
+
+    static final int DefaultDimension = 3;      // Size of the random board made from an empty string
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor from a string of pieces, with 0 for the blank.  The pieces are given row by row either as one digit
+    // each, such as 245386107, or separated by commas, spaces or slashes, such as 1,2,3,4/5,6,7,8/9,10,11,12/13,14,15,0
+    // so that tiles can have two digits.  The number of pieces sets the size of the board.  An empty string places
+    // the pieces of a 3x3 board into random starting locations.
+    Board( String boardValues) {
+        if( boardValues.trim().length() == 0) {
+            setPieces( BoardLayout.forDimension( DefaultDimension), randomPieces( DefaultDimension));
+        }
+        else {
+            int[] pieces = parsePieces( boardValues);
+            setPieces( BoardLayout.forBoardSize( pieces.length), pieces);
+        }
+    }//end Board()
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, placing the pieces of a board with the given number of rows and columns into random locations
+    Board( int dimension) {
+        setPieces( BoardLayout.forDimension( dimension), randomPieces( dimension));
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Copy constructor
+    public Board( Board oldBoard) {
+        // Copying the packed value copies every piece, while a larger board needs its own copy of the squares
+        this.layout = oldBoard.layout;
+        this.packedBoard = oldBoard.packedBoard;
+        this.squares = (oldBoard.squares == null) ? null : oldBoard.squares.clone();
+        this.blankIndex = oldBoard.blankIndex;
+        this.heuristicValue = oldBoard.heuristicValue;
+    }//end Board( oldBoard) copy constructor
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor from the piece on each square, which must hold each of 0 to n-1 once, such as from BoardGenerator
+    Board( BoardLayout theLayout, int[] pieces) {
+        setPieces( theLayout, pieces);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor from an already packed board value, such as one produced by BoardLayout.applyMove()
+    Board( BoardLayout theLayout, long packedValue) {
+        layout = theLayout;
+        packedBoard = packedValue;
+        blankIndex = layout.blankIndexOf( packedValue);
+        this.findHeuristicValue();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor from a packed board value whose heuristic value is already known, such as one
+    // found with BoardLayout.heuristicAfterMove()
+    Board( BoardLayout theLayout, long packedValue, int heuristicValue) {
+        layout = theLayout;
+        packedBoard = packedValue;
+        blankIndex = layout.blankIndexOf( packedValue);
+        this.heuristicValue = heuristicValue;
+
+        assert( heuristicValue == fullHeuristicValue()) : "Incremental heuristic out of step for\n" + this;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Store the pieces of a new board, packed if its layout allows
+    private void setPieces( BoardLayout theLayout, int[] pieces)
+    {
+        layout = theLayout;
+        if( layout.isPacked()) {
+            packedBoard = layout.pack( pieces);
+        }
+        else {
+            squares = new byte[ pieces.length];
+            for( int i=0; i< pieces.length; i++) {
+                squares[ i] = (byte) pieces[ i];
+            }
+        }
+        for( int i=0; i< pieces.length; i++) {
+            if( pieces[ i] == 0) {
+                blankIndex = i;
+            }
+        }
+
+        // Set the heuristic value for the board
+        this.findHeuristicValue();
+    }//end setPieces()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Place the pieces in random locations, always making a board that can be solved
+    private static int[] randomPieces( int dimension)
+    {
+        return new BoardGenerator( dimension, System.currentTimeMillis()).nextPieces();
+    }//end randomPieces()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Read the pieces from a board string, checking that each of 0 to n-1 appears exactly once
+    private static int[] parsePieces( String boardValues)
+    {
+        String trimmedValues = boardValues.trim();
+        String[] values = trimmedValues.matches(".*[\\s,/].*") ? trimmedValues.split("[\\s,/]+")
+                                                              : trimmedValues.split("");
+        int[] pieces = new int[ values.length];
+        boolean[] pieceSeen = new boolean[ values.length];
+        for( int i=0; i< values.length; i++) {
+            try {
+                pieces[ i] = Integer.parseInt( values[ i]);
+            }
+            catch( NumberFormatException e) {
+                throw new IllegalArgumentException("Board piece " + values[ i] + " is not a number in " + boardValues);
+            }
+            if( pieces[ i] < 0 || pieces[ i] >= values.length || pieceSeen[ pieces[ i]]) {
+                throw new IllegalArgumentException("Board " + boardValues + " must hold each of 0 to " +
+                                                   (values.length - 1) + " exactly once");
+            }
+            pieceSeen[ pieces[ i]] = true;
+        }
+        return pieces;
+    }//end parsePieces()
+
+
+    // Getters and Setters
+    //-----------------------------------------------------------------------------------------
+    public BoardLayout getLayout()
+    {
+        return layout;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getPieceAt( int position)
+    {
+        return (squares == null) ? BoardLayout.pieceAt( packedBoard, position) : squares[ position];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getBlankIndex()
+    {
+        return blankIndex;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get the packed board value, which the search engines that store boards work with
+    public long getPackedValue()
+    {
+        if( squares != null) {
+            throw new IllegalArgumentException( layout + " boards are too large to pack into a long");
+        }
+        return packedBoard;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getHeuristicValue() {
+        return heuristicValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the index of some piece
+    private int findIndexOfPiece( int pieceToFind)
+    {
+        int returnValue = -1;
+        // Step through the squares of the board
+        for( int i=0; i< layout.boardSize; i++) {
+            if( getPieceAt( i) == pieceToFind) {
+                returnValue = i;
+                break;
+            }
+         }
+
+        assert( returnValue != -1);
+        return returnValue;
+    }//end findIndexOfPiece()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Move from some source, using the stored position of the blank as the destination.
+    public void movePiece(int pieceToMove) {
+        // Find the index value of the piece being moved.  The destination blank square is cached.
+        movePieceAt( findIndexOfPiece( pieceToMove));
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Move the piece at fromIndex into the blank square.  Moving the piece at the old blank index back undoes the
+    // move, so a search can make and unmake moves on one Board without copying it.
+    public void movePieceAt( int fromIndex) {
+        // Update the heuristic value for the piece that moved, then make the move
+        int pieceToMove = getPieceAt( fromIndex);
+        heuristicValue += layout.manhattanDelta[ pieceToMove][ fromIndex][ blankIndex];
+        if( squares == null) {
+            packedBoard = layout.applyMove( packedBoard, fromIndex);
+        }
+        else {
+            squares[ blankIndex] = (byte) pieceToMove;
+            squares[ fromIndex] = 0;
+        }
+        blankIndex = fromIndex;
+
+        // Debug-only check (enabled with -ea) that the incremental value matches a full recompute
+        assert( heuristicValue == fullHeuristicValue()) : "Incremental heuristic out of step for\n" + this;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Estimate how close we are to a solution by adding the distance from each piece
+    // to its final location using city-blocks distance of difference in rows and columns
+    public void findHeuristicValue()
+    {
+        heuristicValue = fullHeuristicValue();
+    }//end heuristicValue()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add up the city-blocks distance of every piece, looked up in the layout's manhattanDistance table
+    private int fullHeuristicValue()
+    {
+        if( squares == null) {
+            return layout.fullHeuristicValue( packedBoard);
+        }
+        int totalDistance = 0;
+        for( int i=0; i< layout.boardSize; i++) {
+            totalDistance += layout.manhattanDistance[ squares[ i]][ i];
+        }
+        return totalDistance;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find all possible valid moves, which is the list of indices of squares adjacent to the blank (0) square.
+    public ArrayList findPossibleMoves() {
+        ArrayList<Integer> possibleMoves = new ArrayList<>();
+
+        // The "blank" square, represented by integer value 0, is cached.
+        // Add the index values of the squares adjacent to it, from the layout's neighbourSquares table.
+        for( int neighbour : layout.neighbourSquares[ blankIndex]) {
+            possibleMoves.add( neighbour);
+        }
+        return possibleMoves;
+    }//end findPossibleMoves()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Convert output value to a string as wide as the largest piece.  This is really only needed to convert 0 to ' '
+    private String outputPiece( int n)
+    {
+        int width = String.valueOf( layout.boardSize - 1).length();
+        int piece = getPieceAt( n);
+        String returnValue = (piece != 0) ? String.valueOf( piece) : "";
+        while( returnValue.length() < width) {
+            returnValue = " " + returnValue;
+        }
+        return returnValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if the final board can be reached from this one, which is checked from the permutation parity of
+    // the pieces without any search.  Half of all arrangements of the pieces cannot be solved.
+    public boolean isSolvable()
+    {
+        int[] pieces = new int[ layout.boardSize];
+        for( int i=0; i< pieces.length; i++) {
+            pieces[ i] = getPieceAt( i);
+        }
+        return layout.isSolvable( pieces);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if board is in its final configuration, with heuristic value of 0, since each
+    // piece is now it is final position.
+    public boolean isFinished()
+    {
+       return (this.heuristicValue == 0);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public int compareTo( Board oldBoard) {
+        return heuristicValue - oldBoard.heuristicValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Equality comparison, using each board position.  The packed values hold every position, so compare them directly.
+    public boolean equals( Board oldBoard) {
+        if( layout != oldBoard.layout) {
+            return false;
+        }
+        return (squares == null) ? packedBoard == oldBoard.packedBoard : Arrays.equals( squares, oldBoard.squares);
+    }//end equals()
+
+
+    //-----------------------------------------------------------------------------------------
+    // hash function, mixing the packed value or the squares of the board
+    public int hashCode()
+    {
+        return (squares == null) ? Long.hashCode( packedBoard * 0x9E3779B97F4A7C15L) : Arrays.hashCode( squares);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString() {
+        StringBuilder boardText = new StringBuilder();
+        for( int row=0; row< layout.dimension; row++) {
+            boardText.append("  ");
+            for( int column=0; column< layout.dimension; column++) {
+                boardText.append(" ").append( outputPiece( row * layout.dimension + column));
+            }
+            boardText.append("\n");
+        }
+        return( boardText + "Heuristic value: " + heuristicValue + "\n");
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Give the pieces on one line in the form the Board( String) constructor reads: one digit each for boards up to
+    // 3x3, such as 245386107, and separated by commas for larger boards
+    public String toPieceString() {
+        StringBuilder pieceText = new StringBuilder();
+        for( int i=0; i< layout.boardSize; i++) {
+            if( i > 0 && layout.boardSize > 9) {
+                pieceText.append(",");
+            }
+            pieceText.append( getPieceAt( i));
+        }
+        return pieceText.toString();
+    }
+
+}//end class Board
@@ -0,0 +1,202 @@
+package tiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Make random starting boards that can always be solved, from a seed, so the same seed always gives the same boards.
+ * Plain random boards are a shuffle of the pieces, with two pieces swapped back if the shuffle gave a board that
+ * cannot be solved, so every board that can be solved is equally likely and no search is ever wasted on one that
+ * cannot.  Only a couple of small arrays are made for each board, so millions of boards can be made a second.
+ *
+ * Boards can also be made with a chosen Manhattan distance, or a chosen number of moves in their shortest solution,
+ * for sets of boards of a known difficulty.  These are found by walking out from the final board, so they are not
+ * spread evenly over all the boards with that distance.
+ *
+ * Usage: java tiles.BoardGenerator [--seed=s] [--count=n] [--size=n] [--manhattan=h | --depth=d] [--engine=e ...]
+ * writes count boards, one per line in the form BatchSolver reads.  Boards with a chosen depth are measured with the
+ * engine given by the same options as for TilesDriver, which must find shortest solutions.  --checkpoint saves a
+ * single solve, and cannot be used.
+ */
+public class BoardGenerator {
+    static final int MaximumWalkMoves = 1 << 20;    // Moves to try for a chosen Manhattan distance before giving up
+    static final int MaximumRestarts = 10000;       // Walks to try for a chosen depth before giving up
+
+    private BoardLayout layout;             // Size of the boards to make
+    private SplittableRandom randomGenerator;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for boards of the given number of rows and columns, from a seed
+    public BoardGenerator( int dimension, long seed) {
+        layout = BoardLayout.forDimension( dimension);
+        randomGenerator = new SplittableRandom( seed);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        TilesDriver theDriver = new TilesDriver();
+        long seed = System.currentTimeMillis();
+        int count = 1;
+        int dimension = Board.DefaultDimension;
+        int manhattanDistance = -1;
+        int depth = -1;
+        for( String option : args) {
+            if( option.startsWith("--seed=")) {
+                seed = Long.parseLong( option.substring( "--seed=".length()));
+            }
+            else if( option.startsWith("--count=")) {
+                count = Integer.parseInt( option.substring( "--count=".length()));
+            }
+            else if( option.startsWith("--size=")) {
+                dimension = Integer.parseInt( option.substring( "--size=".length()));
+            }
+            else if( option.startsWith("--manhattan=")) {
+                manhattanDistance = Integer.parseInt( option.substring( "--manhattan=".length()));
+            }
+            else if( option.startsWith("--depth=")) {
+                depth = Integer.parseInt( option.substring( "--depth=".length()));
+            }
+            else {
+                theDriver.readOptions( new String[] { option});
+            }
+        }
+        if( theDriver.checkpointFile != null) {
+            throw new IllegalArgumentException("--checkpoint saves a single solve, and cannot measure boards");
+        }
+
+        BoardGenerator theGenerator = new BoardGenerator( dimension, seed);
+        PuzzleSolver theSolver = (depth >= 0) ? theDriver.createSolver() : null;
+        Writer output = new BufferedWriter( new OutputStreamWriter( System.out));
+        for( int i = 0; i < count; i++) {
+            Board theBoard;
+            if( depth >= 0) {
+                theBoard = theGenerator.nextBoardWithDepth( depth, theSolver);
+            }
+            else if( manhattanDistance >= 0) {
+                theBoard = theGenerator.nextBoardWithManhattan( manhattanDistance);
+            }
+            else {
+                theBoard = theGenerator.nextBoard();
+            }
+            output.write( theBoard.toPieceString());
+            output.write( '\n');
+        }
+        output.flush();
+    }//end main()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make a random board that can be solved, with every such board equally likely
+    public Board nextBoard()
+    {
+        return new Board( layout, nextPieces());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Shuffle the pieces onto the squares, then swap the first two pieces that are not the blank if the board cannot
+    // be solved.  The swap changes the permutation parity, which makes it solvable, and pairs each board that cannot
+    // be solved with exactly one that can, keeping them all equally likely.
+    int[] nextPieces()
+    {
+        int[] pieces = layout.finalPieces();
+        for( int i = pieces.length - 1; i > 0; i--) {
+            int j = randomGenerator.nextInt( i + 1);
+            int piece = pieces[ i];
+            pieces[ i] = pieces[ j];
+            pieces[ j] = piece;
+        }
+        if( ! layout.isSolvable( pieces)) {
+            int first = (pieces[ 0] == 0) ? 1 : 0;
+            int second = (pieces[ first + 1] == 0) ? first + 2 : first + 1;
+            int piece = pieces[ first];
+            pieces[ first] = pieces[ second];
+            pieces[ second] = piece;
+        }
+        return pieces;
+    }//end nextPieces()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make a board whose Manhattan distance is the given value, by making random moves out from the final board until
+    // the distance first reaches it.  Each move changes the distance by exactly one, so no value below the target is
+    // skipped over.  Throw IllegalArgumentException if the distance is not reached, as it may be too large.
+    public Board nextBoardWithManhattan( int manhattanDistance)
+    {
+        Board theBoard = new Board( layout, layout.finalPieces());
+        int previousBlank = NodeArena.NoMove;
+        for( int i = 0; i < MaximumWalkMoves && theBoard.getHeuristicValue() != manhattanDistance; i++) {
+            previousBlank = makeRandomMove( theBoard, previousBlank);
+        }
+        if( theBoard.getHeuristicValue() != manhattanDistance) {
+            throw new IllegalArgumentException("No " + layout + " board with Manhattan distance " + manhattanDistance +
+                                               " found in " + MaximumWalkMoves + " moves");
+        }
+        return theBoard;
+    }//end nextBoardWithManhattan()
+
+    //-----------------------------------------------------------------------------------------
+    // Move a random piece next to the blank, other than the one in the square the blank just left.  Return the
+    // square the blank was in before the move.
+    private int makeRandomMove( Board theBoard, int previousBlank)
+    {
+        int blankIndex = theBoard.getBlankIndex();
+        int[] neighbours = layout.neighbourSquares[ blankIndex];
+        int fromIndex;
+        do {
+            fromIndex = neighbours[ randomGenerator.nextInt( neighbours.length)];
+        } while( fromIndex == previousBlank);
+        theBoard.movePieceAt( fromIndex);
+        return blankIndex;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make a board whose shortest solution has exactly the given number of moves, measured with a solver that finds
+    // shortest solutions.  Starting from the final board, each step moves to a random neighbouring board that is one
+    // move further from the final board, so it takes depth steps.  A walk that reaches a board with no neighbour
+    // further away starts again.  Throw IllegalStateException if no board is found, as the depth may be too large.
+    public Board nextBoardWithDepth( int depth, PuzzleSolver theSolver)
+    {
+        if( ! theSolver.findsShortestSolution()) {
+            throw new IllegalArgumentException("Measuring the depth of a board needs a solver that finds the shortest " +
+                                               "solution");
+        }
+        for( int restart = 0; restart < MaximumRestarts; restart++) {
+            Board theBoard = new Board( layout, layout.finalPieces());
+            int currentDepth = 0;
+            while( currentDepth < depth && moveFurtherAway( theBoard, currentDepth, theSolver)) {
+                currentDepth++;
+            }
+            if( currentDepth == depth) {
+                return theBoard;
+            }
+        }
+        throw new IllegalStateException("No " + layout + " board with a shortest solution of " + depth +
+                                        " moves found in " + MaximumRestarts + " walks");
+    }//end nextBoardWithDepth()
+
+    //-----------------------------------------------------------------------------------------
+    // Try the moves from a board, starting from a random one, making the first that leads to a board one move further from the
+    // final board.  Return false, leaving the board unchanged, if there is none.
+    private boolean moveFurtherAway( Board theBoard, int currentDepth, PuzzleSolver theSolver)
+    {
+        int blankIndex = theBoard.getBlankIndex();
+        int[] neighbours = layout.neighbourSquares[ blankIndex];
+        int firstNeighbour = randomGenerator.nextInt( neighbours.length);
+        for( int i = 0; i < neighbours.length; i++) {
+            theBoard.movePieceAt( neighbours[ (firstNeighbour + i) % neighbours.length]);
+            // Every move changes the depth by exactly one, so only a board whose heuristic allows it is solved
+            if( theBoard.getHeuristicValue() <= currentDepth + 1 &&
+                theSolver.solve( theBoard).getNumberOfMoves() == currentDepth + 1) {
+                return true;
+            }
+            theBoard.movePieceAt( blankIndex);
+        }
+        return false;
+    }//end moveFurtherAway()
+}//end class BoardGenerator
@@ -0,0 +1,347 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * The tables and packed-value arithmetic for one board dimension, shared by every Board of that size.  There is one
+ * layout per dimension from MinimumDimension to MaximumDimension, made on first use by forDimension().
+ *
+ * Boards of up to 4x4 fit in a single long at 4 bits per square, with square 0 in the lowest bits, and the search
+ * engines work on that packed value.  The blank is the one square holding 0, so it is found with a few shifts and
+ * masks instead of being stored.  Larger boards do not fit in a long, and only the Board methods work for them.
+ */
+public class BoardLayout {
+    static final int MinimumDimension = 2;
+    static final int MaximumDimension = 5;
+    static final int MaximumPackedDimension = 4;    // Largest dimension whose boards fit in a long
+    static final int BitsPerSquare = 4;             // Bits used to store each piece in a packed board
+    static final long SquareMask = 0xFL;            // Mask for a single square of a packed board
+
+    // Most moves any solvable board can need, for each dimension.  For 5x5 this is the best known upper bound.
+    private static final int[] MaximumMovesByDimension = { 0, 0, 6, 31, 80, 205};
+
+    private static final BoardLayout[] Layouts = new BoardLayout[ MaximumDimension + 1];
+
+    final int dimension;                // Number of rows, which is also the number of columns
+    final int boardSize;                // Number of playing squares on the board
+    final int maximumMoves;             // No solvable board takes more moves than this
+    final long finalPackedBoard;        // Packed value of the final ordered board, or 0 if boards are not packed
+    private final long lowSquareBits;   // The lowest bit of every square of a packed board
+
+    // Index values of the squares adjacent to each square, numbered row by row from 0 at the top left.  These
+    // are the squares a piece can move from when the blank is on that square.
+    final int[][] neighbourSquares;
+
+    // City-blocks distance of each piece from its final location, indexed by [piece][position].  The blank (0) is
+    // given a distance of 0 everywhere, since counting it can overestimate the moves left, which A* does not allow.
+    final int[][] manhattanDistance;
+    // Change in a piece's city-blocks distance when it moves, indexed by [piece][fromPosition][toPosition]
+    final int[][][] manhattanDelta;
+
+    // Reflecting a board across its main diagonal moves each square to transposedSquare[ square], and gives each
+    // piece the number of the piece whose final square is the reflection of its own, transposedPiece[ piece].  The
+    // final board is its own reflection, so a board and its reflection need the same number of moves, and a move
+    // from a square on one is a move from the reflected square on the other.
+    final int[] transposedSquare;
+    final int[] transposedPiece;
+    // Reflection of each byte of a packed board, indexed by [byte][value], which are ORed together to reflect it
+    private final long[][] transposedBytes;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the layout for boards with the given number of rows and columns
+    static synchronized BoardLayout forDimension( int dimension)
+    {
+        if( dimension < MinimumDimension || dimension > MaximumDimension) {
+            throw new IllegalArgumentException("Boards must be from " + MinimumDimension + "x" + MinimumDimension +
+                                               " to " + MaximumDimension + "x" + MaximumDimension + ", not " +
+                                               dimension + "x" + dimension);
+        }
+        if( Layouts[ dimension] == null) {
+            Layouts[ dimension] = new BoardLayout( dimension);
+        }
+        return Layouts[ dimension];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the layout for boards with the given number of squares, which must be a square number
+    static BoardLayout forBoardSize( int boardSize)
+    {
+        int dimension = (int) Math.round( Math.sqrt( boardSize));
+        if( dimension * dimension != boardSize) {
+            throw new IllegalArgumentException("A board needs a square number of pieces, not " + boardSize);
+        }
+        return forDimension( dimension);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, filling in the tables for one dimension
+    private BoardLayout( int theDimension) {
+        dimension = theDimension;
+        boardSize = dimension * dimension;
+        maximumMoves = MaximumMovesByDimension[ dimension];
+
+        neighbourSquares = new int[ boardSize][];
+        for( int position=0; position< boardSize; position++) {
+            int row = position / dimension;
+            int column = position % dimension;
+            int[] neighbours = new int[ 4];
+            int count = 0;
+            if( row > 0)                 neighbours[ count++] = position - dimension;
+            if( column < dimension - 1)  neighbours[ count++] = position + 1;
+            if( row < dimension - 1)     neighbours[ count++] = position + dimension;
+            if( column > 0)              neighbours[ count++] = position - 1;
+            neighbourSquares[ position] = Arrays.copyOf( neighbours, count);
+        }
+
+        manhattanDistance = new int[ boardSize][ boardSize];
+        for( int piece=1; piece< boardSize; piece++) {
+            for( int position=0; position< boardSize; position++) {
+                manhattanDistance[ piece][ position] = rowDifference( piece, position) + columnDifference( piece, position);
+            }
+        }
+        manhattanDelta = new int[ boardSize][ boardSize][ boardSize];
+        for( int piece=0; piece< boardSize; piece++) {
+            for( int from=0; from< boardSize; from++) {
+                for( int to=0; to< boardSize; to++) {
+                    manhattanDelta[ piece][ from][ to] = manhattanDistance[ piece][ to] - manhattanDistance[ piece][ from];
+                }
+            }
+        }
+
+        transposedSquare = new int[ boardSize];
+        transposedPiece = new int[ boardSize];
+        for( int position=0; position< boardSize; position++) {
+            transposedSquare[ position] = (position % dimension) * dimension + position / dimension;
+        }
+        for( int piece=1; piece< boardSize; piece++) {
+            transposedPiece[ piece] = transposedSquare[ piece - 1] + 1;
+        }
+
+        long lowBits = 0;
+        long[][] bytes = null;
+        if( isPacked()) {
+            // Each byte holds two squares, whose pieces are reflected and moved to their reflected squares
+            bytes = new long[ (boardSize * BitsPerSquare + 7) / 8][ 256];
+            for( int position=0; position< boardSize; position++) {
+                int shift = (position % 2) * BitsPerSquare;
+                for( int value=0; value< 256; value++) {
+                    int piece = (value >>> shift) & (int) SquareMask;
+                    if( piece < boardSize) {
+                        bytes[ position / 2][ value] |= (long) transposedPiece[ piece] <<
+                                                        (transposedSquare[ position] * BitsPerSquare);
+                    }
+                }
+            }
+            for( int position=0; position< boardSize; position++) {
+                lowBits |= 1L << (position * BitsPerSquare);
+            }
+        }
+        lowSquareBits = lowBits;
+        transposedBytes = bytes;
+        finalPackedBoard = isPacked() ? pack( finalPieces()) : 0;
+    }//end BoardLayout()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if boards of this size fit in a packed long
+    boolean isPacked()
+    {
+        return dimension <= MaximumPackedDimension;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the pieces of the final ordered board: 1, 2, 3, ... with the blank last
+    int[] finalPieces()
+    {
+        int[] pieces = new int[ boardSize];
+        for( int i=0; i< boardSize - 1; i++) {
+            pieces[ i] = i + 1;
+        }
+        return pieces;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if the final board can be reached from a board with these pieces.  Every move swaps the blank with
+    // a piece, which changes the parity of the permutation from the final board, and also moves the blank one square,
+    // which changes the parity of its city-blocks distance from its final square.  So only boards where the two
+    // parities match can be solved.  The permutation parity comes from counting its cycles, in a single pass.
+    boolean isSolvable( int[] pieces)
+    {
+        // Follow each cycle of the permutation taking a square to the square its piece belongs on, where the blank
+        // belongs on the last square
+        boolean[] visited = new boolean[ boardSize];
+        int cycles = 0;
+        for( int start=0; start< boardSize; start++) {
+            if( ! visited[ start]) {
+                cycles++;
+                for( int square = start; ! visited[ square]; ) {
+                    visited[ square] = true;
+                    int piece = pieces[ square];
+                    square = (piece == 0) ? boardSize - 1 : piece - 1;
+                }
+            }
+        }
+        int permutationParity = (boardSize - cycles) & 1;
+
+        int blankSquare = 0;
+        while( pieces[ blankSquare] != 0) {
+            blankSquare++;
+        }
+        int blankDistanceParity = (rowDifference( 0, blankSquare) + columnDifference( 0, blankSquare)) & 1;
+        return permutationParity == blankDistanceParity;
+    }//end isSolvable()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Pack an array of pieces into a single long
+    long pack( int[] pieces)
+    {
+        long packedValue = 0;
+        for( int i=0; i< boardSize; i++) {
+            packedValue |= ((long) pieces[ i]) << (i * BitsPerSquare);
+        }
+        return packedValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the piece at some position of a packed board value
+    static int pieceAt( long packedValue, int position)
+    {
+        return (int) ((packedValue >>> (position * BitsPerSquare)) & SquareMask);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the blank square of a packed board value, which is the only square holding 0.  OR-ing each square's
+    // bits down into its lowest bit leaves that bit clear only for the blank.
+    int blankIndexOf( long packedValue)
+    {
+        long anyBitSet = packedValue | (packedValue >>> 1);
+        anyBitSet |= anyBitSet >>> 2;
+        return Long.numberOfTrailingZeros( ~anyBitSet & lowSquareBits) / BitsPerSquare;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Move the piece at fromIndex into the blank square of a packed board value, returning the new packed
+    // value.  The blank ends up at fromIndex.  Nothing is allocated, so this can be used to try out moves
+    // before deciding whether a new Board is needed at all.
+    long applyMove( long packedValue, int fromIndex)
+    {
+        int toIndex = blankIndexOf( packedValue);
+        int fromShift = fromIndex * BitsPerSquare;
+        long piece = (packedValue >>> fromShift) & SquareMask;
+
+        // Clear the source square, which becomes the blank, and drop the piece into the old blank square
+        packedValue &= ~(SquareMask << fromShift);
+        return packedValue | (piece << (toIndex * BitsPerSquare));
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Reflect a packed board across its main diagonal, relabelling the pieces so the final board stays the same,
+    // with a table lookup for every two squares
+    long transpose( long packedValue)
+    {
+        long transposedValue = 0;
+        for( int i=0; i< transposedBytes.length; i++) {
+            transposedValue |= transposedBytes[ i][ (int) (packedValue >>> (i * 8)) & 0xFF];
+        }
+        return transposedValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the one board that stands for both a packed board and its reflection, so tables of distances need only
+    // keep one of the two.  It is the one with the blank below the main diagonal, or for a blank on the diagonal,
+    // the smaller packed value.  Comparing the result with the board shows whether it was reflected.
+    long canonical( long packedValue)
+    {
+        int blankIndex = blankIndexOf( packedValue);
+        int row = blankIndex / dimension;
+        int column = blankIndex % dimension;
+        if( row > column) {
+            return packedValue;
+        }
+        long transposedValue = transpose( packedValue);
+        if( row < column) {
+            return transposedValue;
+        }
+        return (Long.compareUnsigned( transposedValue, packedValue) < 0) ? transposedValue : packedValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the heuristic value of a packed board after moving the piece at fromIndex into the blank, given
+    // the heuristic value before the move.  Only one piece changes squares (the blank does not count), so the
+    // new value is the old one plus its entry from the manhattanDelta table.
+    int heuristicAfterMove( long packedValue, int heuristicValue, int fromIndex)
+    {
+        int toIndex = blankIndexOf( packedValue);
+        int pieceToMove = pieceAt( packedValue, fromIndex);
+
+        return heuristicValue + manhattanDelta[ pieceToMove][ fromIndex][ toIndex];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add up the city-blocks distance of every piece on a packed board, looked up in the manhattanDistance table
+    int fullHeuristicValue( long packedValue)
+    {
+        int totalDistance = 0;
+        for( int i=0; i<boardSize; i++) {
+            totalDistance += manhattanDistance[ pieceAt( packedValue, i)][ i];
+        }
+        return totalDistance;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the difference in row from where the valueToCheck is at the given position and the row where
+    // it will finally be.
+    int rowDifference( int valueToCheck, int position)
+    {
+        // Find the destination row
+        int currentRow = position / dimension;
+        int destinationRow = (valueToCheck-1) / dimension;
+        // Special case when value is 0, since it should end up on the bottom row
+        if( valueToCheck == 0) {
+            destinationRow = dimension - 1;
+        }
+
+        // return the vertical distance from current row to its destination row
+        return Math.abs( destinationRow - currentRow);
+    }//end rowDifference()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the difference in column from where the valueToCheck is at the given position and the column where
+    // it will finally be.
+    int columnDifference( int valueToCheck, int position)
+    {
+        int currentColumn = position % dimension;
+        int destinationColumn;
+        // Special case when value is 0, since it should end up on the rightmost column
+        if( valueToCheck == 0) {
+            destinationColumn = dimension - 1;
+        } else {
+            destinationColumn = (valueToCheck - 1) % dimension;
+        }
+
+        // return the vertical distance from where it is to where it needs to be
+        return Math.abs( destinationColumn - currentColumn);
+    }//end columnDifference()
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return dimension + "x" + dimension;
+    }
+}//end class BoardLayout
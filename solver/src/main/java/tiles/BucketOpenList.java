@@ -0,0 +1,158 @@
+package tiles;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Open list for small non-negative integer priorities, such as the city-blocks heuristic which is never more
+ * than a few dozen on the board.  There is one bucket of node handles per priority value, so add and remove are
+ * O(1) with no comparisons: add appends to the node's bucket, and remove takes from the lowest bucket that is not
+ * empty.  Nodes with equal priority are taken in the order given by the TieBreaking setting.  The bucket array
+ * grows if a larger priority shows up, but HeapOpenList is the better choice for unbounded priorities.
+ */
+public class BucketOpenList implements OpenList {
+    // Order in which Nodes with the same priority are removed
+    public enum TieBreaking {
+        LIFO,   // Most recently added first, which favors following the newest line of search
+        FIFO    // Oldest first
+    }
+
+    static final int InitialBucketCount = 64;   // Enough priority values for the city-blocks heuristic
+    static final int InitialBucketSize = 16;    // Starting capacity of each bucket, which grows by doubling
+
+    private int[][] buckets;        // Node handles in each bucket, indexed by priority value
+    private int[] bucketHeads;      // Index of the first node still in each bucket, moved forward by FIFO removes
+    private int[] bucketTails;      // Index one past the last node in each bucket
+    private int lowestBucket;       // No bucket below this index has any Nodes
+    private int size = 0;           // Number of nodes in all buckets
+    private TieBreaking tieBreaking;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public BucketOpenList( TieBreaking theTieBreaking) {
+        tieBreaking = theTieBreaking;
+        buckets = new int[ InitialBucketCount][];
+        bucketHeads = new int[ InitialBucketCount];
+        bucketTails = new int[ InitialBucketCount];
+        lowestBucket = InitialBucketCount;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public void add( int node, int priority)
+    {
+        if( priority >= buckets.length) {
+            growBucketCount( priority + 1);
+        }
+
+        // Make room in the bucket if needed, then append the node
+        int[] bucket = buckets[ priority];
+        int tail = bucketTails[ priority];
+        if( bucket == null) {
+            bucket = new int[ InitialBucketSize];
+            buckets[ priority] = bucket;
+        }
+        else if( tail == bucket.length) {
+            bucket = Arrays.copyOf( bucket, bucket.length * 2);
+            buckets[ priority] = bucket;
+        }
+        bucket[ tail] = node;
+        bucketTails[ priority] = tail + 1;
+
+        if( priority < lowestBucket) {
+            lowestBucket = priority;
+        }
+        size++;
+    }//end add()
+
+
+    //-----------------------------------------------------------------------------------------
+    public int remove()
+    {
+        if( size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        // Find the lowest bucket that is not empty.  Buckets are only emptied by remove, so the search
+        // can start from where the last remove left off.
+        while( bucketHeads[ lowestBucket] == bucketTails[ lowestBucket]) {
+            lowestBucket++;
+        }
+
+        int[] bucket = buckets[ lowestBucket];
+        int node;
+        if( tieBreaking == TieBreaking.LIFO) {
+            node = bucket[ --bucketTails[ lowestBucket]];
+        }
+        else {
+            node = bucket[ bucketHeads[ lowestBucket]++];
+        }
+
+        // Reset an emptied bucket so its space is reused from the start
+        if( bucketHeads[ lowestBucket] == bucketTails[ lowestBucket]) {
+            bucketHeads[ lowestBucket] = 0;
+            bucketTails[ lowestBucket] = 0;
+        }
+        size--;
+        return node;
+    }//end remove()
+
+
+    //-----------------------------------------------------------------------------------------
+    public int lowestPriority()
+    {
+        if( size == 0) {
+            throw new NoSuchElementException();
+        }
+        while( bucketHeads[ lowestBucket] == bucketTails[ lowestBucket]) {
+            lowestBucket++;
+        }
+        return lowestBucket;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add buckets for a larger priority value than was seen so far
+    private void growBucketCount( int neededBucketCount)
+    {
+        int newBucketCount = Math.max( neededBucketCount, buckets.length * 2);
+        buckets = Arrays.copyOf( buckets, newBucketCount);
+        bucketHeads = Arrays.copyOf( bucketHeads, newBucketCount);
+        bucketTails = Arrays.copyOf( bucketTails, newBucketCount);
+        if( size == 0) {
+            lowestBucket = newBucketCount;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Pass the entries bucket by bucket, each in the order it was added, so adding them again fills each bucket the same
+    public void forEachEntry( EntryConsumer theConsumer)
+    {
+        for( int priority = lowestBucket; priority < buckets.length; priority++) {
+            for( int i = bucketHeads[ priority]; i < bucketTails[ priority]; i++) {
+                theConsumer.accept( buckets[ priority][ i], priority);
+            }
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public int size()
+    {
+        return size;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return size + " nodes, lowest priority " + (size == 0 ? "-" : String.valueOf( lowestBucket));
+    }
+}//end class BucketOpenList
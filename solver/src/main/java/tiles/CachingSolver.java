@@ -0,0 +1,54 @@
+package tiles;
+
+/**
+ * Wraps another PuzzleSolver with a SolutionCache.  A board already in the cache is solved at once by following
+ * the stored moves, and every other board is passed on to the wrapped solver, whose solution is recorded in the
+ * cache if the solver always finds the shortest one.  The A* and IDA* engines can also be given the cache
+ * themselves, so that they stop as soon as their search reaches a cached board.
+ */
+public class CachingSolver implements PuzzleSolver {
+    private PuzzleSolver theSolver;         // Solver for the boards that are not cached
+    private SolutionCache theCache;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public CachingSolver( PuzzleSolver aSolver, SolutionCache aCache) {
+        theSolver = aSolver;
+        theCache = aCache;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        SearchStats stats = new SearchStats( "cache");
+        if( startBoard.getLayout().isPacked() &&
+            theCache.lookup( startBoard.getLayout(), startBoard.getPackedValue()) != SolutionCache.NotCached) {
+            byte[] cachedMoves = theCache.findSuffix( startBoard.getLayout(), startBoard.getPackedValue());
+            if( cachedMoves != null) {
+                return stats.finish( new Solution( startBoard, cachedMoves, 0));
+            }
+        }
+
+        Solution theSolution = theSolver.solve( startBoard);
+        if( theSolution.isSolved() && theSolver.findsShortestSolution()) {
+            theCache.record( theSolution);
+        }
+        return theSolution;
+    }//end solve()
+
+
+    //-----------------------------------------------------------------------------------------
+    public boolean findsShortestSolution()
+    {
+        return theSolver.findsShortestSolution();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public SolutionCache getCache()
+    {
+        return theCache;
+    }
+}//end class CachingSolver
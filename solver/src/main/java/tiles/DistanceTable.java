@@ -0,0 +1,83 @@
+package tiles;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact number of moves from every board to the final board, read from a file made by DistanceTableBuilder.
+ * The file holds one byte for each board and its reflection across the main diagonal, which need the same
+ * number of moves, indexed by PermutationRank.symmetryRank(), with Unreachable for the boards that cannot be
+ * solved.  It is memory-mapped read-only rather than read in, so opening it does no parsing and pages are only
+ * loaded as boards are looked up.  Several JVMs using the same file share one copy in the operating system's
+ * page cache.
+ */
+public class DistanceTable {
+    static final int Unreachable = 0xFF;        // Distance stored for boards that cannot reach the final board
+    static final String DefaultFileName = "8tiles-distances.bin";
+    static final String FileNameProperty = "tiles.distanceTable";    // System property to use a different file
+
+    private MappedByteBuffer distances;         // Distance for each rank, mapped from the file
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, mapping an existing table file
+    public DistanceTable( Path tableFile) throws IOException {
+        try( FileChannel theChannel = FileChannel.open( tableFile, StandardOpenOption.READ)) {
+            if( theChannel.size() != PermutationRank.NumberOfSymmetryRanks) {
+                throw new IOException( tableFile + " is not a distance table, since it has " + theChannel.size() +
+                                       " bytes instead of " + PermutationRank.NumberOfSymmetryRanks);
+            }
+            // The mapping stays valid after the channel is closed
+            distances = theChannel.map( FileChannel.MapMode.READ_ONLY, 0, PermutationRank.NumberOfSymmetryRanks);
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class holding the shared table, which is only mapped the first time getDefault() is called
+    private static class DefaultTableHolder
+    {
+        static final DistanceTable DefaultTable = openDefault();
+
+        static DistanceTable openDefault() {
+            Path tableFile = Paths.get( System.getProperty( FileNameProperty, DefaultFileName));
+            try {
+                return new DistanceTable( tableFile);
+            }
+            catch( IOException e) {
+                throw new IllegalStateException( "Cannot open the distance table " + tableFile +
+                                                 ".  Build it with: java tiles.DistanceTableBuilder " + tableFile, e);
+            }
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the table named by the tiles.distanceTable system property, or 8tiles-distances.bin by default
+    public static DistanceTable getDefault()
+    {
+        return DefaultTableHolder.DefaultTable;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the number of moves from a packed 3x3 board to the final board, or Unreachable
+    public int getDistance( long packedBoard)
+    {
+        return distances.get( PermutationRank.symmetryRank( packedBoard)) & 0xFF;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public boolean isSolvable( Board theBoard)
+    {
+        if( theBoard.getLayout() != PermutationRank.Layout) {
+            throw new IllegalArgumentException("The distance table only covers " + PermutationRank.Layout + " boards");
+        }
+        return getDistance( theBoard.getPackedValue()) != Unreachable;
+    }
+}//end class DistanceTable
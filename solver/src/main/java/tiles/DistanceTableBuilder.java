@@ -0,0 +1,73 @@
+package tiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Build-once tool that writes the file used by DistanceTable.  It does a breadth-first search backwards from the
+ * final 3x3 board over every board that can reach it, 9!/2 = 181,440 of them, so the depth at which each board is
+ * first reached is its exact distance.  A board and its reflection are one entry of the table, and the moves from
+ * one are the reflected moves from the other, so the search only goes through canonical boards, about half of them.
+ *
+ * Usage: java tiles.DistanceTableBuilder [file], where the file defaults to 8tiles-distances.bin
+ */
+public class DistanceTableBuilder {
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        Path tableFile = Paths.get( args.length > 0 ? args[ 0] : DistanceTable.DefaultFileName);
+        byte[] distances = buildDistances();
+        writeTable( tableFile, distances);
+        System.out.println("Wrote distances for all boards to " + tableFile);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the distance of every board from the final board, indexed by PermutationRank.symmetryRank()
+    static byte[] buildDistances()
+    {
+        BoardLayout layout = PermutationRank.Layout;
+        byte[] distances = new byte[ PermutationRank.NumberOfSymmetryRanks];
+        Arrays.fill( distances, (byte) DistanceTable.Unreachable);
+
+        // Canonical boards are queued in the order they are reached, which is in order of distance.  The final board
+        // is its own reflection, so it is canonical.
+        long[] queue = new long[ PermutationRank.NumberOfRanks / 2];
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[ queueTail++] = layout.finalPackedBoard;
+        distances[ PermutationRank.symmetryRank( layout.finalPackedBoard)] = 0;
+
+        while( queueHead < queueTail) {
+            long packedBoard = queue[ queueHead++];
+            int newDistance = distances[ PermutationRank.symmetryRank( packedBoard)] + 1;
+            for( int fromIndex : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                long newPackedBoard = layout.canonical( layout.applyMove( packedBoard, fromIndex));
+                int newRank = PermutationRank.symmetryRank( newPackedBoard);
+                if( (distances[ newRank] & 0xFF) == DistanceTable.Unreachable) {
+                    distances[ newRank] = (byte) newDistance;
+                    queue[ queueTail++] = newPackedBoard;
+                }
+            }
+        }
+        return distances;
+    }//end buildDistances()
+
+
+    //-----------------------------------------------------------------------------------------
+    static void writeTable( Path tableFile, byte[] distances) throws IOException
+    {
+        try( FileChannel theChannel = FileChannel.open( tableFile, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer theBuffer = ByteBuffer.wrap( distances);
+            while( theBuffer.hasRemaining()) {
+                theChannel.write( theBuffer);
+            }
+        }
+    }
+}//end class DistanceTableBuilder
@@ -0,0 +1,91 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * The children made by expanding a block of nodes together in a SearchTree, kept in parallel primitive arrays so
+ * that each step of the expansion is one tight loop over all of them: the boards are all made, then all looked up in
+ * the NodeIndex, then the new ones are all estimated in one call to the Heuristic, before any of them is stored.
+ * The arrays are kept for the whole search, and grow if a block has more children than they hold.
+ */
+class ExpansionBatch {
+    static final int InitialCapacity = 64;
+
+    int size = 0;                   // Number of children in the batch
+    int[] parents;                  // Node each child was made from
+    long[] parentBoards;            // Packed board of each child's parent
+    int[] moves;                    // Square whose piece moved into the parent's blank to make each child
+    long[] boards;                  // Packed board of each child
+    int[] existingNodes;            // Node holding each child's board when the batch was looked up, or NoNode
+
+    // The children with no node, gathered up to be estimated together
+    int newSize = 0;                // Number of new children
+    long[] newParentBoards;         // Packed board of each new child's parent
+    int[] newMoves;                 // Move that made each new child
+    int[] newHeuristicValues;       // Estimate for each new child's parent, replaced by the child's own
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    ExpansionBatch() {
+        parents = new int[ InitialCapacity];
+        parentBoards = new long[ InitialCapacity];
+        moves = new int[ InitialCapacity];
+        boards = new long[ InitialCapacity];
+        existingNodes = new int[ InitialCapacity];
+        newParentBoards = new long[ InitialCapacity];
+        newMoves = new int[ InitialCapacity];
+        newHeuristicValues = new int[ InitialCapacity];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Empty the batch, keeping its arrays
+    void clear()
+    {
+        size = 0;
+        newSize = 0;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add a child, made from a parent node by moving the piece at some square into its blank
+    void add( int parent, long parentBoard, int move, long board)
+    {
+        if( size == parents.length) {
+            grow();
+        }
+        parents[ size] = parent;
+        parentBoards[ size] = parentBoard;
+        moves[ size] = move;
+        boards[ size] = board;
+        size++;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add the child at some index to the new children to be estimated, given its parent's estimate
+    void addNew( int child, int parentHeuristicValue)
+    {
+        newParentBoards[ newSize] = parentBoards[ child];
+        newMoves[ newSize] = moves[ child];
+        newHeuristicValues[ newSize] = parentHeuristicValue;
+        newSize++;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Double every array.  There are never more new children than children, so they grow together.
+    private void grow()
+    {
+        int capacity = parents.length * 2;
+        parents = Arrays.copyOf( parents, capacity);
+        parentBoards = Arrays.copyOf( parentBoards, capacity);
+        moves = Arrays.copyOf( moves, capacity);
+        boards = Arrays.copyOf( boards, capacity);
+        existingNodes = Arrays.copyOf( existingNodes, capacity);
+        newParentBoards = Arrays.copyOf( newParentBoards, capacity);
+        newMoves = Arrays.copyOf( newMoves, capacity);
+        newHeuristicValues = Arrays.copyOf( newHeuristicValues, capacity);
+    }
+}//end class ExpansionBatch
@@ -0,0 +1,415 @@
+package tiles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Breadth-first search over every board reachable from a start board, keeping the boards on disk instead of in memory,
+ * so that state spaces far too big for the heap, such as the 15-puzzle's, can be counted layer by layer on one machine.
+ * Each layer holds the boards first reached after the same number of moves, as a file of packed boards in sorted order.
+ *
+ * Duplicates are found late rather than as each board is made.  The boards one move from the current layer are
+ * collected in a buffer of a fixed size, which is sorted and written out as a run whenever it fills.  Then all the runs
+ * are merged, keeping one copy of each board, and any board also in the current layer or the one before it is left
+ * out.  Every move can be undone, so a board one move from the current layer is at most one move nearer the start,
+ * and those two layers are all that need to be checked.  The rest is the next layer, and only three layers are ever
+ * kept on disk, so this is a frontier search.  If there are more runs than can be merged at once, they are merged in
+ * groups first.  The memory used is the run buffer, plus one block for each file being merged.
+ *
+ * All reading and writing is done through FileChannels in blocks of BlockBytes, and is sequential apart from the
+ * switching between the files being merged.
+ *
+ * Usage: java tiles.ExternalFrontierSearch [--size=n] [--directory=d] [--run=boards] [--depth=d] [--keep]
+ * counts the boards of a size at each distance from the final board, which is also every board that can be solved.
+ * The layer files go in the directory, tiles-frontier by default, and are deleted as the search moves on unless
+ * --keep is given.  The run buffer holds DefaultRunBoards unless another number of boards is given, which must be at
+ * least MinimumRunBoards, and the search stops after the given depth, if there is one.
+ */
+public class ExternalFrontierSearch {
+    static final int BlockBytes = 1 << 20;              // Bytes read or written to a file at once
+    static final int MaximumMergeWays = 64;             // Most files merged at once, each needing a block
+    static final int DefaultRunBoards = 1 << 22;        // Boards held in memory before a run is written: 32 MB
+    static final int MinimumRunBoards = 4;              // Most boards made from one board, which a run must hold
+    static final String DefaultDirectory = "tiles-frontier";
+
+    private BoardLayout layout;         // Size of the boards searched
+    private Path directory;             // Where the layer and run files go
+    private long[] runBuffer;           // Boards made from the current layer, to be sorted into a run
+    private boolean keepLayers;         // Keep every layer file, rather than only the last three
+    private int numberOfRunFiles = 0;   // Run files made so far, to name the next
+    long bytesRead = 0;                 // Totals for all the layers
+    long bytesWritten = 0;
+    long runsWritten = 0;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for boards of the given layout, writing files to the given directory and writing a run whenever
+    // the given number of boards have been made, which must be at least MinimumRunBoards
+    public ExternalFrontierSearch( BoardLayout theLayout, Path theDirectory, int runBoards, boolean keepAllLayers) {
+        if( ! theLayout.isPacked()) {
+            throw new IllegalArgumentException("External search needs packed boards, of at most " +
+                                               BoardLayout.MaximumPackedDimension + "x" +
+                                               BoardLayout.MaximumPackedDimension);
+        }
+        if( runBoards < MinimumRunBoards) {
+            throw new IllegalArgumentException("A run must hold at least " + MinimumRunBoards + " boards, not " +
+                                               runBoards);
+        }
+        layout = theLayout;
+        directory = theDirectory;
+        runBuffer = new long[ runBoards];
+        keepLayers = keepAllLayers;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        int dimension = Board.DefaultDimension;
+        Path directory = Paths.get( DefaultDirectory);
+        int runBoards = DefaultRunBoards;
+        int maximumDepth = Integer.MAX_VALUE;
+        boolean keepLayers = false;
+        for( String option : args) {
+            if( option.startsWith("--size=")) {
+                dimension = Integer.parseInt( option.substring( "--size=".length()));
+            }
+            else if( option.startsWith("--directory=")) {
+                directory = Paths.get( option.substring( "--directory=".length()));
+            }
+            else if( option.startsWith("--run=")) {
+                runBoards = Integer.parseInt( option.substring( "--run=".length()));
+            }
+            else if( option.startsWith("--depth=")) {
+                maximumDepth = Integer.parseInt( option.substring( "--depth=".length()));
+            }
+            else if( option.equals("--keep")) {
+                keepLayers = true;
+            }
+            else {
+                System.err.println("Unknown option " + option + " ignored.");
+            }
+        }
+
+        BoardLayout layout = BoardLayout.forDimension( dimension);
+        ExternalFrontierSearch theSearch = new ExternalFrontierSearch( layout, directory, runBoards, keepLayers);
+        long startNanos = System.nanoTime();
+        long[] layerSizes = theSearch.search( layout.finalPackedBoard, maximumDepth,
+                                              (depth, size) -> System.out.println( depth + " " + size));
+        long totalBoards = Arrays.stream( layerSizes).sum();
+        System.err.printf( "%d %s boards in %d layers in %.3f s: %d runs, %d MB read, %d MB written%n", totalBoards,
+                           layout, layerSizes.length, (System.nanoTime() - startNanos) / 1e9, theSearch.runsWritten,
+                           theSearch.bytesRead >> 20, theSearch.bytesWritten >> 20);
+    }//end main()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Interface for being told the size of each layer as soon as it has been found
+    public interface LayerListener
+    {
+        void layerFound( int depth, long numberOfBoards);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Search out from the start board until no new boards are found or the maximum depth is reached, telling the
+    // listener the size of each layer.  Return the number of boards in each layer, by depth.
+    public long[] search( long startPackedBoard, int maximumDepth, LayerListener theListener) throws IOException
+    {
+        Files.createDirectories( directory);
+        List< Long> layerSizes = new ArrayList<>();
+        Path layerBefore = null;
+        Path currentLayer = layerFile( 0);
+        try( KeyWriter output = new KeyWriter( currentLayer)) {
+            output.write( startPackedBoard);
+        }
+        layerSizes.add( 1L);
+        theListener.layerFound( 0, 1);
+
+        for( int depth = 1; depth <= maximumDepth; depth++) {
+            List< Path> runs = writeRuns( currentLayer);
+            Path nextLayer = layerFile( depth);
+            long layerSize = mergeRuns( runs, currentLayer, layerBefore, nextLayer);
+            if( layerBefore != null && ! keepLayers) {
+                Files.delete( layerBefore);
+            }
+            layerBefore = currentLayer;
+            currentLayer = nextLayer;
+            if( layerSize == 0) {
+                Files.delete( nextLayer);
+                break;
+            }
+            layerSizes.add( layerSize);
+            theListener.layerFound( depth, layerSize);
+        }
+        if( ! keepLayers) {
+            Files.deleteIfExists( layerBefore);
+            Files.deleteIfExists( currentLayer);
+        }
+        return layerSizes.stream().mapToLong( Long::longValue).toArray();
+    }//end search()
+
+    //-----------------------------------------------------------------------------------------
+    // Pass every board in a layer file, written by a search that kept its layers, to the consumer in sorted order
+    public void forEachBoard( int depth, LongConsumer theConsumer) throws IOException
+    {
+        try( KeyReader input = new KeyReader( layerFile( depth))) {
+            while( input.hasNext()) {
+                theConsumer.accept( input.next());
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    Path layerFile( int depth)
+    {
+        return directory.resolve( "layer-" + depth + ".bin");
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make every move from each board in a layer, writing the new boards out in sorted runs.  Duplicates within a run
+    // are dropped before it is written.
+    private List< Path> writeRuns( Path layer) throws IOException
+    {
+        List< Path> runs = new ArrayList<>();
+        int boardsInBuffer = 0;
+        try( KeyReader input = new KeyReader( layer)) {
+            while( input.hasNext()) {
+                long packedBoard = input.next();
+                int[] neighbours = layout.neighbourSquares[ layout.blankIndexOf( packedBoard)];
+                if( boardsInBuffer + neighbours.length > runBuffer.length) {
+                    runs.add( writeRun( boardsInBuffer));
+                    boardsInBuffer = 0;
+                }
+                for( int fromIndex : neighbours) {
+                    runBuffer[ boardsInBuffer++] = layout.applyMove( packedBoard, fromIndex);
+                }
+            }
+        }
+        if( boardsInBuffer > 0) {
+            runs.add( writeRun( boardsInBuffer));
+        }
+        return runs;
+    }//end writeRuns()
+
+    //-----------------------------------------------------------------------------------------
+    private Path writeRun( int boardsInBuffer) throws IOException
+    {
+        Arrays.sort( runBuffer, 0, boardsInBuffer);
+        Path run = directory.resolve( "run-" + numberOfRunFiles++ + ".bin");
+        try( KeyWriter output = new KeyWriter( run)) {
+            for( int i = 0; i < boardsInBuffer; i++) {
+                if( i == 0 || runBuffer[ i] != runBuffer[ i - 1]) {
+                    output.write( runBuffer[ i]);
+                }
+            }
+        }
+        runsWritten++;
+        return run;
+    }//end writeRun()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Merge the runs into the next layer, leaving out the boards in the current layer and the one before it, which
+    // is null for the first layer.  The runs are deleted.  Return the number of boards in the next layer.
+    private long mergeRuns( List< Path> runs, Path currentLayer, Path layerBefore, Path nextLayer) throws IOException
+    {
+        // Merge groups of runs into longer runs until they can all be merged at once with the two layers
+        while( runs.size() > MaximumMergeWays - 2) {
+            List< Path> mergedRuns = new ArrayList<>();
+            for( int i = 0; i < runs.size(); i += MaximumMergeWays) {
+                List< Path> group = runs.subList( i, Math.min( i + MaximumMergeWays, runs.size()));
+                Path mergedRun = directory.resolve( "run-" + numberOfRunFiles++ + ".bin");
+                merge( group, new ArrayList<>(), mergedRun);
+                mergedRuns.add( mergedRun);
+            }
+            runs = mergedRuns;
+        }
+
+        List< Path> excludedLayers = new ArrayList<>();
+        excludedLayers.add( currentLayer);
+        if( layerBefore != null) {
+            excludedLayers.add( layerBefore);
+        }
+        return merge( runs, excludedLayers, nextLayer);
+    }//end mergeRuns()
+
+    //-----------------------------------------------------------------------------------------
+    // Merge sorted files into one, keeping one copy of each board and leaving out any board in the excluded files,
+    // which are also sorted.  The merged files are deleted.  Return the number of boards written.
+    private long merge( List< Path> inputFiles, List< Path> excludedFiles, Path outputFile) throws IOException
+    {
+        PriorityQueue< KeyReader> inputs = new PriorityQueue<>( Comparator.comparingLong( KeyReader::peek));
+        List< KeyReader> excluded = new ArrayList<>();
+        List< KeyReader> allReaders = new ArrayList<>();
+        long boardsWritten = 0;
+        try( KeyWriter output = new KeyWriter( outputFile)) {
+            for( Path theFile : inputFiles) {
+                KeyReader theReader = new KeyReader( theFile);
+                allReaders.add( theReader);
+                if( theReader.hasNext()) {
+                    inputs.add( theReader);
+                }
+            }
+            for( Path theFile : excludedFiles) {
+                KeyReader theReader = new KeyReader( theFile);
+                allReaders.add( theReader);
+                excluded.add( theReader);
+            }
+
+            boolean isFirst = true;
+            long lastPackedBoard = 0;
+            while( ! inputs.isEmpty()) {
+                KeyReader theReader = inputs.poll();
+                long packedBoard = theReader.next();
+                if( theReader.hasNext()) {
+                    inputs.add( theReader);
+                }
+                if( ! isFirst && packedBoard == lastPackedBoard) {
+                    continue;
+                }
+                isFirst = false;
+                lastPackedBoard = packedBoard;
+                if( ! isInAny( excluded, packedBoard)) {
+                    output.write( packedBoard);
+                    boardsWritten++;
+                }
+            }
+        }
+        finally {
+            for( KeyReader theReader : allReaders) {
+                theReader.close();
+            }
+        }
+        for( Path theFile : inputFiles) {
+            Files.delete( theFile);
+        }
+        return boardsWritten;
+    }//end merge()
+
+    //-----------------------------------------------------------------------------------------
+    // Whether a board is in any of the sorted files, given boards in increasing order
+    private static boolean isInAny( List< KeyReader> sortedFiles, long packedBoard)
+    {
+        boolean found = false;
+        for( KeyReader theReader : sortedFiles) {
+            while( theReader.hasNext() && theReader.peek() < packedBoard) {
+                theReader.next();
+            }
+            found |= theReader.hasNext() && theReader.peek() == packedBoard;
+        }
+        return found;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class writing packed boards to a file in blocks
+    private class KeyWriter implements Closeable
+    {
+        FileChannel theChannel;
+        ByteBuffer block = ByteBuffer.allocateDirect( BlockBytes);
+        LongBuffer boards = block.asLongBuffer();
+
+        KeyWriter( Path theFile) throws IOException {
+            theChannel = FileChannel.open( theFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                           StandardOpenOption.WRITE);
+        }
+
+        void write( long packedBoard) throws IOException
+        {
+            if( ! boards.hasRemaining()) {
+                writeBlock();
+            }
+            boards.put( packedBoard);
+        }
+
+        void writeBlock() throws IOException
+        {
+            block.clear().limit( boards.position() * Long.BYTES);
+            while( block.hasRemaining()) {
+                bytesWritten += theChannel.write( block);
+            }
+            boards.clear();
+        }
+
+        public void close() throws IOException
+        {
+            try {
+                writeBlock();
+            }
+            finally {
+                theChannel.close();
+            }
+        }
+    }//end class KeyWriter
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class reading packed boards from a file in blocks
+    private class KeyReader implements Closeable
+    {
+        FileChannel theChannel;
+        ByteBuffer block = ByteBuffer.allocateDirect( BlockBytes);
+        LongBuffer boards = block.asLongBuffer().limit( 0);
+
+        KeyReader( Path theFile) throws IOException {
+            theChannel = FileChannel.open( theFile, StandardOpenOption.READ);
+        }
+
+        boolean hasNext()
+        {
+            if( ! boards.hasRemaining()) {
+                readBlock();
+            }
+            return boards.hasRemaining();
+        }
+
+        // The next board, without moving past it, which must only be called when hasNext() is true
+        long peek()
+        {
+            return boards.get( boards.position());
+        }
+
+        long next()
+        {
+            hasNext();
+            return boards.get();
+        }
+
+        // Fill the block, reading until it is full or the file ends.  Errors are unchecked, so hasNext() can be used
+        // in the merge's comparisons.
+        void readBlock()
+        {
+            try {
+                block.clear();
+                while( block.hasRemaining() && theChannel.read( block) > 0) {
+                    // Keep reading
+                }
+                bytesRead += block.position();
+                boards.clear().limit( block.position() / Long.BYTES);
+            }
+            catch( IOException e) {
+                throw new UncheckedIOException( e);
+            }
+        }
+
+        public void close() throws IOException
+        {
+            theChannel.close();
+        }
+    }//end class KeyReader
+}//end class ExternalFrontierSearch
@@ -0,0 +1,114 @@
+package tiles;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Open list kept in a binary heap.  Each add and remove is O(log n), but there is no limit on the priority
+ * values, so this is the fallback for heuristics that are not small bounded integers.  Each entry is the
+ * priority and the node handle packed into one long, so the heap is a plain long array and comparing two
+ * entries is a single compare.  Entries with equal priority come out lowest handle, which is oldest, first.
+ */
+public class HeapOpenList implements OpenList {
+    static final int InitialCapacity = 1024;
+
+    private long[] heap;        // Heap of entries, with the smallest at index 0
+    private int size = 0;       // Number of entries in the heap
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public HeapOpenList() {
+        heap = new long[ InitialCapacity];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public void add( int node, int priority)
+    {
+        if( size == heap.length) {
+            heap = Arrays.copyOf( heap, size * 2);
+        }
+
+        // Sift the new entry up from the bottom of the heap
+        long entry = ((long) priority << 32) | (node & 0xFFFFFFFFL);
+        int i = size++;
+        while( i > 0) {
+            int parent = (i - 1) >>> 1;
+            if( heap[ parent] <= entry) {
+                break;
+            }
+            heap[ i] = heap[ parent];
+            i = parent;
+        }
+        heap[ i] = entry;
+    }//end add()
+
+
+    //-----------------------------------------------------------------------------------------
+    public int remove()
+    {
+        if( size == 0) {
+            throw new NoSuchElementException();
+        }
+        int node = (int) heap[ 0];
+
+        // Sift the last entry down from the top of the heap
+        long entry = heap[ --size];
+        int i = 0;
+        int half = size >>> 1;
+        while( i < half) {
+            int child = 2 * i + 1;
+            if( child + 1 < size && heap[ child + 1] < heap[ child]) {
+                child++;
+            }
+            if( entry <= heap[ child]) {
+                break;
+            }
+            heap[ i] = heap[ child];
+            i = child;
+        }
+        heap[ i] = entry;
+        return node;
+    }//end remove()
+
+
+    //-----------------------------------------------------------------------------------------
+    public int lowestPriority()
+    {
+        if( size == 0) {
+            throw new NoSuchElementException();
+        }
+        return (int) (heap[ 0] >> 32);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Pass the entries in heap order.  Each entry is then added below a parent that is no larger, so none moves and
+    // adding them again gives the same heap.
+    public void forEachEntry( EntryConsumer theConsumer)
+    {
+        for( int i = 0; i < size; i++) {
+            theConsumer.accept( (int) heap[ i], (int) (heap[ i] >> 32));
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public int size()
+    {
+        return size;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return size + " nodes, lowest priority " + (size == 0 ? "-" : String.valueOf( heap[ 0] >> 32));
+    }
+}//end class HeapOpenList
@@ -0,0 +1,41 @@
+package tiles;
+
+/**
+ * An estimate of the number of moves left from a board to the final board, used by the informed search engines to
+ * order their search.  It must never be more than the real number of moves, or A* and IDA* may not find the
+ * shortest solution, and it must be 0 for the final board.
+ *
+ * The engines that store boards work on packed values, so the estimates are given for a packed board and its
+ * layout.  One Heuristic can therefore serve boards of several sizes, and can be shared by any number of threads.
+ */
+public interface Heuristic {
+    int estimate( BoardLayout layout, long packedBoard);
+
+    //-----------------------------------------------------------------------------------------
+    // Estimate for a packed board after moving the piece at fromIndex into its blank, given the estimate before the
+    // move.  By default the new board is estimated from scratch, but most heuristics can do better.
+    default int estimateAfterMove( BoardLayout layout, long packedBoard, int heuristicValue, int fromIndex)
+    {
+        return estimate( layout, layout.applyMove( packedBoard, fromIndex));
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Estimates for a batch of moves, one on each of the first count packed boards: heuristicValues[ i] is the
+    // estimate for packedBoards[ i], and is replaced by the estimate after moving the piece at fromIndices[ i] into
+    // its blank.  The SearchTree gives all the new children of a block of nodes at once, so a heuristic can work on
+    // them in one loop instead of one call each.  By default each move is estimated by estimateAfterMove().
+    default void estimateAfterMoves( BoardLayout layout, long[] packedBoards, int[] heuristicValues, int[] fromIndices,
+                                     int count)
+    {
+        for( int i=0; i< count; i++) {
+            heuristicValues[ i] = estimateAfterMove( layout, packedBoards[ i], heuristicValues[ i], fromIndices[ i]);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Estimate for a Board, which by default is the estimate for its packed value
+    default int estimate( Board theBoard)
+    {
+        return estimate( theBoard.getLayout(), theBoard.getPackedValue());
+    }
+}
@@ -0,0 +1,169 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * Solve the puzzle with IDA*, iterative deepening A*.  Each iteration is a depth-first search that gives up on
+ * any path whose f = g + h goes over a threshold, and the next iteration raises the threshold to the smallest f
+ * that went over.  The first solution found therefore has the fewest possible moves, like A*.
+ *
+ * Nothing is stored for the boards that are tried.  The search makes and unmakes moves on a single Board, and
+ * keeps only the current path of moves, so memory use grows with the solution length instead of with the number
+ * of boards expanded.  It never moves the piece that was just moved straight back.
+ *
+ * Given a SolutionCache, a board whose distance is cached is not searched below.  Its exact f is known, so it either
+ * goes over the threshold or finishes the solution with its stored moves.
+ */
+public class IdaStarSolver implements PuzzleSolver {
+    static final int NotFound = -1;                 // Search result when no solution is within the threshold
+    static final int NoMaximum = -1;                // Use the most moves any solvable board of the size needs
+
+    private int maximumMoves;       // Thresholds beyond this many moves are not tried, or NoMaximum
+    private Heuristic heuristic;    // Estimate of the moves left from each board
+    private SolutionCache solutionCache;    // Cache of exact distances to finish early from, or null
+
+    // State of the solve in progress, which belongs to a copy of the solver made for each solve
+    private Board theBoard;         // Board that moves are made and unmade on
+    private byte[] pathMoves;       // Square moved into the blank at each depth of the current path
+    private int nextThreshold;      // Smallest f found over the current threshold
+    private SearchStats stats;      // Counts for the solve.  The deepest path stands in for the open list size.
+    private Board closestBoard;     // Board found with the lowest heuristic value
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the Manhattan distance heuristic
+    public IdaStarSolver() {
+        this( NoMaximum, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the largest number of moves to try, after which the board is taken to be impossible
+    public IdaStarSolver( int theMaximumMoves) {
+        this( theMaximumMoves, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the heuristic to use
+    public IdaStarSolver( Heuristic theHeuristic) {
+        this( NoMaximum, theHeuristic);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the largest number of moves to try, after which the board is taken to be impossible, and the
+    // heuristic to use
+    public IdaStarSolver( int theMaximumMoves, Heuristic theHeuristic) {
+        this( theMaximumMoves, theHeuristic, null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the heuristic to use, and a cache of exact distances to look up boards in
+    public IdaStarSolver( Heuristic theHeuristic, SolutionCache theSolutionCache) {
+        this( NoMaximum, theHeuristic, theSolutionCache);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the largest number of moves to try, the heuristic to use, and a cache of exact distances
+    public IdaStarSolver( int theMaximumMoves, Heuristic theHeuristic, SolutionCache theSolutionCache) {
+        maximumMoves = theMaximumMoves;
+        heuristic = theHeuristic;
+        solutionCache = theSolutionCache;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        // Use a new copy of this solver to hold the search state, so solves on different threads stay apart
+        return new IdaStarSolver( maximumMoves, heuristic, solutionCache).solveFrom( startBoard);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    private Solution solveFrom( Board startBoard)
+    {
+        theBoard = new Board( startBoard);
+        int maximumMoves = (this.maximumMoves == NoMaximum) ? startBoard.getLayout().maximumMoves : this.maximumMoves;
+        pathMoves = new byte[ maximumMoves];
+        stats = new SearchStats( "idastar");
+        if( ! startBoard.isSolvable()) {
+            return stats.finish( new Solution( startBoard, startBoard, 0));
+        }
+        closestBoard = new Board( startBoard);
+
+        // Search with increasing thresholds until a solution is found or the threshold is too large
+        int threshold = heuristic.estimate( theBoard);
+        while( threshold <= maximumMoves) {
+            nextThreshold = Integer.MAX_VALUE;
+            int solutionLength = search( 0, threshold, NodeArena.NoMove);
+            if( solutionLength != NotFound) {
+                byte[] moves = Arrays.copyOf( pathMoves, solutionLength);
+                return stats.finish( new Solution( startBoard, moves, (int) stats.nodesExpanded));
+            }
+            threshold = nextThreshold;
+        }
+
+        // Every path has gone past the maximum number of moves, so the puzzle is impossible
+        return stats.finish( new Solution( startBoard, closestBoard, (int) stats.nodesExpanded));
+    }//end solveFrom()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Depth-first search from theBoard, which is cost moves from the start board.  previousBlank is where the
+    // blank was before the last move, so moving that piece back is skipped.  Return the number of moves in the
+    // solution if one is found within the threshold, leaving its moves in pathMoves, or NotFound otherwise.
+    private int search( int cost, int threshold, int previousBlank)
+    {
+        int heuristicValue = heuristic.estimate( theBoard);
+        int f = cost + heuristicValue;
+        if( f > threshold) {
+            if( f < nextThreshold) {
+                nextThreshold = f;
+            }
+            return NotFound;
+        }
+        if( theBoard.isFinished()) {
+            return cost;
+        }
+        if( theBoard.getHeuristicValue() < closestBoard.getHeuristicValue()) {
+            closestBoard = new Board( theBoard);
+        }
+        if( solutionCache != null && theBoard.getLayout().isPacked()) {
+            // A cached board has an exact distance, so there is no need to search below it
+            long packedBoard = theBoard.getPackedValue();
+            int entry = solutionCache.lookup( theBoard.getLayout(), packedBoard);
+            if( entry != SolutionCache.NotCached) {
+                int cachedF = cost + SolutionCache.distanceOf( entry);
+                if( cachedF > threshold) {
+                    if( cachedF < nextThreshold) {
+                        nextThreshold = cachedF;
+                    }
+                    return NotFound;
+                }
+                byte[] suffix = solutionCache.findSuffix( theBoard.getLayout(), packedBoard);
+                if( suffix != null) {
+                    System.arraycopy( suffix, 0, pathMoves, cost, suffix.length);
+                    return cost + suffix.length;
+                }
+            }
+        }
+
+        // Try each move, undoing it afterwards by moving the piece back into the square the blank came from
+        stats.nodesExpanded++;
+        stats.noteOpenListSize( cost + 1);
+        int blankIndex = theBoard.getBlankIndex();
+        for( int fromIndex : theBoard.getLayout().neighbourSquares[ blankIndex]) {
+            if( fromIndex == previousBlank) {
+                continue;
+            }
+            stats.nodesGenerated++;
+            pathMoves[ cost] = (byte) fromIndex;
+            theBoard.movePieceAt( fromIndex);
+            int solutionLength = search( cost + 1, threshold, blankIndex);
+            theBoard.movePieceAt( blankIndex);
+            if( solutionLength != NotFound) {
+                return solutionLength;
+            }
+        }
+        return NotFound;
+    }//end search()
+}//end class IdaStarSolver
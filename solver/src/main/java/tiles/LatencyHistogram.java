@@ -0,0 +1,110 @@
+package tiles;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count request latencies in buckets, to find their percentiles without keeping every value.  Latencies are kept in
+ * microseconds.  Below 16 each value has its own bucket, and above that each power of 2 is split into 16 buckets, so
+ * a percentile is never more than 1/16 above the real value however long the latencies are.  Recording is a couple
+ * of atomic adds, so any number of threads can record at once without locking.
+ */
+public class LatencyHistogram {
+    static final int SubBucketBits = 4;                     // Each power of 2 is split into 2^SubBucketBits buckets
+    static final int SubBuckets = 1 << SubBucketBits;
+
+    private AtomicLongArray counts = new AtomicLongArray( (Long.SIZE - SubBucketBits + 1) * SubBuckets);
+    private LongAdder totalCount = new LongAdder();
+    private LongAdder totalMicros = new LongAdder();
+    private LongAccumulator maximumMicros = new LongAccumulator( Math::max, 0);
+
+
+    //-----------------------------------------------------------------------------------------
+    // Count one latency, given in nanoseconds
+    public void record( long nanos)
+    {
+        long micros = Math.max( nanos / 1000, 0);
+        counts.incrementAndGet( bucketOf( micros));
+        totalCount.increment();
+        totalMicros.add( micros);
+        maximumMicros.accumulate( micros);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Find the bucket a value goes in: the value itself if it is small, otherwise its power of 2 and the next
+    // SubBucketBits bits below the top one
+    static int bucketOf( long micros)
+    {
+        if( micros < SubBuckets) {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros( micros);
+        int subBucket = (int) (micros >>> (exponent - SubBucketBits)) & (SubBuckets - 1);
+        return (exponent - SubBucketBits + 1) * SubBuckets + subBucket;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Largest value that goes in a bucket
+    static long highestValueIn( int bucket)
+    {
+        if( bucket < SubBuckets) {
+            return bucket;
+        }
+        int exponent = bucket / SubBuckets + SubBucketBits - 1;
+        long lowestValue = (long) (SubBuckets + bucket % SubBuckets) << (exponent - SubBucketBits);
+        return lowestValue + (1L << (exponent - SubBucketBits)) - 1;
+    }
+
+
+    // Getters
+    //-----------------------------------------------------------------------------------------
+    public long getCount()
+    {
+        return totalCount.sum();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Latency in nanoseconds that the given percentage of the latencies recorded are no longer than, or 0 if none
+    // have been recorded.  Counts recorded while this runs may or may not be included.
+    public long getPercentileNanos( double percentile)
+    {
+        long count = getCount();
+        if( count == 0) {
+            return 0;
+        }
+        long rank = Math.max( (long) Math.ceil( percentile / 100 * count), 1);
+        long countSoFar = 0;
+        for( int bucket = 0; bucket < counts.length(); bucket++) {
+            countSoFar += counts.get( bucket);
+            if( countSoFar >= rank) {
+                return Math.min( highestValueIn( bucket), maximumMicros.get()) * 1000;
+            }
+        }
+        return maximumMicros.get() * 1000;
+    }//end getPercentileNanos()
+
+    //-----------------------------------------------------------------------------------------
+    public long getMeanNanos()
+    {
+        long count = getCount();
+        return (count == 0) ? 0 : totalMicros.sum() * 1000 / count;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getMaximumNanos()
+    {
+        return maximumMicros.get() * 1000;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return String.format( "%d requests, latency mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, " +
+                              "p99.9 %.3f ms, max %.3f ms", getCount(), getMeanNanos() / 1e6,
+                              getPercentileNanos( 50) / 1e6, getPercentileNanos( 90) / 1e6,
+                              getPercentileNanos( 99) / 1e6, getPercentileNanos( 99.9) / 1e6,
+                              getMaximumNanos() / 1e6);
+    }
+}//end class LatencyHistogram
@@ -0,0 +1,102 @@
+package tiles;
+
+/**
+ * The Manhattan distance plus linear conflicts.  Two pieces are in linear conflict when both are in their final row
+ * (or column) but in the wrong order along it, so one of them has to leave the row and come back, which takes two
+ * moves that the Manhattan distance does not count.  For each row and column the fewest pieces that must leave it
+ * are those not in its longest run of pieces already in order, and each adds 2 moves.  This never overestimates,
+ * and is never less than the Manhattan distance alone.
+ *
+ * A move only changes the order of pieces along the two lines it crosses, so after a move only those two lines are
+ * counted again.  Boards of up to 4x4 are supported, since the counting works on packed values.
+ */
+public class LinearConflictHeuristic implements Heuristic {
+
+    //-----------------------------------------------------------------------------------------
+    public int estimate( BoardLayout layout, long packedBoard)
+    {
+        int totalConflicts = 0;
+        for( int line=0; line< layout.dimension; line++) {
+            totalConflicts += lineConflictMoves( layout, packedBoard, line, true) +
+                              lineConflictMoves( layout, packedBoard, line, false);
+        }
+        return layout.fullHeuristicValue( packedBoard) + totalConflicts;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // The Manhattan part changes by one table entry.  A horizontal move keeps the moving piece's row in the same
+    // order, and changes only the two columns it moves between, and a vertical move likewise changes only two rows.
+    public int estimateAfterMove( BoardLayout layout, long packedBoard, int heuristicValue, int fromIndex)
+    {
+        int toIndex = layout.blankIndexOf( packedBoard);
+        long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+        boolean isHorizontalMove = (fromIndex / layout.dimension) == (toIndex / layout.dimension);
+
+        // The lines that changed are columns for a horizontal move and rows for a vertical one
+        boolean linesAreRows = ! isHorizontalMove;
+        int fromLine = isHorizontalMove ? fromIndex % layout.dimension : fromIndex / layout.dimension;
+        int toLine = isHorizontalMove ? toIndex % layout.dimension : toIndex / layout.dimension;
+
+        int conflictChange = lineConflictMoves( layout, newPackedBoard, fromLine, linesAreRows) +
+                             lineConflictMoves( layout, newPackedBoard, toLine, linesAreRows) -
+                             lineConflictMoves( layout, packedBoard, fromLine, linesAreRows) -
+                             lineConflictMoves( layout, packedBoard, toLine, linesAreRows);
+        int newHeuristicValue = layout.heuristicAfterMove( packedBoard, heuristicValue, fromIndex) + conflictChange;
+
+        assert( newHeuristicValue == estimate( layout, newPackedBoard));
+        return newHeuristicValue;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the extra moves for the pieces in one row or column that belong in it but are out of order.  The final
+    // places of those pieces along the line are kept packed in a long, 4 bits each, so nothing is allocated.
+    static int lineConflictMoves( BoardLayout layout, long packedBoard, int line, boolean isRow)
+    {
+        int dimension = layout.dimension;
+        long finalPlaces = 0;       // Final place along the line of each piece that belongs in it, in line order
+        int piecesInLine = 0;
+        for( int i=0; i< dimension; i++) {
+            int position = isRow ? line * dimension + i : i * dimension + line;
+            int piece = BoardLayout.pieceAt( packedBoard, position);
+            if( piece == 0) {
+                continue;
+            }
+            int finalLine = isRow ? (piece - 1) / dimension : (piece - 1) % dimension;
+            if( finalLine == line) {
+                int finalPlace = isRow ? (piece - 1) % dimension : (piece - 1) / dimension;
+                finalPlaces |= (long) finalPlace << (piecesInLine * BoardLayout.BitsPerSquare);
+                piecesInLine++;
+            }
+        }
+        if( piecesInLine < 2) {
+            return 0;
+        }
+
+        // Find the longest run of those pieces already in order, which can stay in the line
+        long runLengths = 0;        // Longest in-order run ending at each piece, packed the same way
+        int longestRun = 0;
+        for( int i=0; i< piecesInLine; i++) {
+            int place = (int) ((finalPlaces >>> (i * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+            int runLength = 1;
+            for( int j=0; j< i; j++) {
+                int earlierPlace = (int) ((finalPlaces >>> (j * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+                int earlierRun = (int) ((runLengths >>> (j * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+                if( earlierPlace < place && earlierRun + 1 > runLength) {
+                    runLength = earlierRun + 1;
+                }
+            }
+            runLengths |= (long) runLength << (i * BoardLayout.BitsPerSquare);
+            longestRun = Math.max( longestRun, runLength);
+        }
+        return 2 * (piecesInLine - longestRun);
+    }//end lineConflictMoves()
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return "linear";
+    }
+}//end class LinearConflictHeuristic
@@ -0,0 +1,90 @@
+package tiles;
+
+/**
+ * The city-blocks (Manhattan) distance of every piece from its final location, added up.  Each move shifts one piece
+ * by one square, so this never overestimates.  The distances come from the tables in BoardLayout, and a move changes
+ * the total by a single table entry.  Every Board keeps this value up to date itself, so it works on boards of
+ * every size, including those too large to pack.
+ *
+ * A batch of moves is estimated by a BatchKernel.  The solver built with the vector Maven profile (mvn -Pvector
+ * package) includes one using the incubating Vector API, which looks up the table entries for several moves at once,
+ * and it is used when the JVM is run with --add-modules jdk.incubator.vector.  Otherwise the moves are estimated
+ * one at a time in a plain loop.
+ */
+public class ManhattanHeuristic implements Heuristic {
+    static final String VectorKernelClassName = "tiles.VectorManhattanKernel";
+
+    // Kernel for batches of moves using the Vector API, or null if it was not built or the module is not present
+    private static final BatchKernel VectorKernel = findVectorKernel();
+
+
+    //-----------------------------------------------------------------------------------------
+    // Interface for a loop that estimates a batch of moves, as Heuristic.estimateAfterMoves() describes
+    interface BatchKernel
+    {
+        void estimateAfterMoves( BoardLayout layout, long[] packedBoards, int[] heuristicValues, int[] fromIndices,
+                                 int count);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Load the Vector API kernel by name, since the classes in jdk.incubator.vector cannot be referred to by code
+    // that has to run without the module
+    private static BatchKernel findVectorKernel()
+    {
+        if( ModuleLayer.boot().findModule( "jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (BatchKernel) Class.forName( VectorKernelClassName).getDeclaredConstructor().newInstance();
+        }
+        catch( ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if batches of moves are estimated with the Vector API
+    static boolean isVectorized()
+    {
+        return VectorKernel != null;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int estimate( BoardLayout layout, long packedBoard)
+    {
+        return layout.fullHeuristicValue( packedBoard);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int estimateAfterMove( BoardLayout layout, long packedBoard, int heuristicValue, int fromIndex)
+    {
+        return layout.heuristicAfterMove( packedBoard, heuristicValue, fromIndex);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public void estimateAfterMoves( BoardLayout layout, long[] packedBoards, int[] heuristicValues, int[] fromIndices,
+                                    int count)
+    {
+        if( VectorKernel != null && layout.isPacked()) {
+            VectorKernel.estimateAfterMoves( layout, packedBoards, heuristicValues, fromIndices, count);
+            return;
+        }
+        for( int i=0; i< count; i++) {
+            heuristicValues[ i] = layout.heuristicAfterMove( packedBoards[ i], heuristicValues[ i], fromIndices[ i]);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int estimate( Board theBoard)
+    {
+        return theBoard.getHeuristicValue();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return "manhattan";
+    }
+}//end class ManhattanHeuristic
@@ -0,0 +1,154 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * Storage for all the search graph nodes, kept as parallel primitive arrays instead of one object per node.
+ * A node is addressed by its int handle, which is its index in the arrays: the packed board, the handle of
+ * its parent, its path cost from the root, the move that reached it, its heuristic value and whether it has
+ * been expanded at its current cost.  The arrays grow
+ * a chunk at a time, so adding nodes never copies the ones already stored.
+ */
+public class NodeArena {
+    static final int NoNode = -1;               // Handle used for "no node", such as the parent of the root
+    static final int NoMove = -1;               // Move stored for the root, which was not reached by a move
+    static final int ChunkBits = 14;            // Each chunk holds 2^14 nodes
+    static final int ChunkSize = 1 << ChunkBits;
+    static final int ChunkMask = ChunkSize - 1;
+
+    private long[][] boards;        // Packed board of each node
+    private int[][] parents;        // Handle of each node's parent
+    private int[][] costs;          // Number of moves from the root to each node
+    private byte[][] moves;         // Index of the square whose piece moved into the blank to reach each node
+    private short[][] heuristics;   // Heuristic value of each node's board
+    private boolean[][] expanded;   // Whether each node has been expanded since its cost last changed
+    private int size = 0;           // Number of nodes stored, which is also the next handle
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public NodeArena() {
+        boards = new long[ 1][];
+        parents = new int[ 1][];
+        costs = new int[ 1][];
+        moves = new byte[ 1][];
+        heuristics = new short[ 1][];
+        expanded = new boolean[ 1][];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Store a new node, returning its handle
+    public int add( long packedBoard, int parent, int cost, int move, int heuristicValue)
+    {
+        int chunk = size >>> ChunkBits;
+        int offset = size & ChunkMask;
+        if( offset == 0) {
+            addChunk( chunk);
+        }
+
+        boards[ chunk][ offset] = packedBoard;
+        parents[ chunk][ offset] = parent;
+        costs[ chunk][ offset] = cost;
+        moves[ chunk][ offset] = (byte) move;
+        heuristics[ chunk][ offset] = (short) heuristicValue;
+        return size++;
+    }//end add()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Allocate the arrays for another chunk of nodes, growing the array of chunks if it is full
+    private void addChunk( int chunk)
+    {
+        if( chunk == boards.length) {
+            int newChunkCount = boards.length * 2;
+            boards = Arrays.copyOf( boards, newChunkCount);
+            parents = Arrays.copyOf( parents, newChunkCount);
+            costs = Arrays.copyOf( costs, newChunkCount);
+            moves = Arrays.copyOf( moves, newChunkCount);
+            heuristics = Arrays.copyOf( heuristics, newChunkCount);
+            expanded = Arrays.copyOf( expanded, newChunkCount);
+        }
+        boards[ chunk] = new long[ ChunkSize];
+        parents[ chunk] = new int[ ChunkSize];
+        costs[ chunk] = new int[ ChunkSize];
+        moves[ chunk] = new byte[ ChunkSize];
+        heuristics[ chunk] = new short[ ChunkSize];
+        expanded[ chunk] = new boolean[ ChunkSize];
+    }
+
+
+    // Getters
+    //-----------------------------------------------------------------------------------------
+    public long getBoard( int node)
+    {
+        return boards[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getParent( int node)
+    {
+        return parents[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getCost( int node)
+    {
+        return costs[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getMove( int node)
+    {
+        return moves[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getHeuristicValue( int node)
+    {
+        return heuristics[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public boolean isExpanded( int node)
+    {
+        return expanded[ node >>> ChunkBits][ node & ChunkMask];
+    }
+
+    // Setters, used when a node is expanded or a cheaper path to an existing node is found
+    //-----------------------------------------------------------------------------------------
+    public void setExpanded( int node, boolean isExpanded)
+    {
+        expanded[ node >>> ChunkBits][ node & ChunkMask] = isExpanded;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public void setParent( int node, int parent)
+    {
+        parents[ node >>> ChunkBits][ node & ChunkMask] = parent;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public void setCost( int node, int cost)
+    {
+        costs[ node >>> ChunkBits][ node & ChunkMask] = cost;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public void setMove( int node, int move)
+    {
+        moves[ node >>> ChunkBits][ node & ChunkMask] = (byte) move;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int size()
+    {
+        return size;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return size + " nodes";
+    }
+}//end class NodeArena
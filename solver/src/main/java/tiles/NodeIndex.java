@@ -0,0 +1,117 @@
+package tiles;
+
+/**
+ * Index from packed boards to the handles of their nodes in a NodeArena.  It is an open-addressing hash table
+ * on two plain arrays, so a lookup needs no boxed keys and no objects per entry.  An index over every 3x3 board
+ * by permutation rank would fit in memory, but the 16!/2 boards of a 4x4 puzzle do not, so only the boards
+ * actually reached are stored.  The table doubles whenever it becomes half full.
+ */
+public class NodeIndex {
+    static final int InitialCapacity = 1 << 12;     // Must be a power of 2
+    static final long EmptyKey = 0;                 // No board packs to 0, since only one square is blank
+
+    private long[] keys;            // Packed board in each slot, or EmptyKey
+    private int[] nodes;            // Node handle for the board in each slot
+    private int size = 0;           // Number of boards with a node
+    private int hashShift;          // Shift keeping the top bits of a hash, one for each bit of a slot number
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor
+    public NodeIndex() {
+        keys = new long[ InitialCapacity];
+        nodes = new int[ InitialCapacity];
+        hashShift = 64 - Integer.numberOfTrailingZeros( InitialCapacity);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the slot holding a packed board, or the empty slot where it would go.  The search starts at the board's
+    // home slot, from the top bits of a multiplicative hash, which are the best mixed and cover the whole table.
+    private int slotOf( long packedBoard)
+    {
+        int mask = keys.length - 1;
+        int slot = (int) ((packedBoard * 0x9E3779B97F4A7C15L) >>> hashShift);
+        while( keys[ slot] != EmptyKey && keys[ slot] != packedBoard) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the node handle for a packed board, or NodeArena.NoNode if the board has no node yet
+    public int get( long packedBoard)
+    {
+        int slot = slotOf( packedBoard);
+        return (keys[ slot] == EmptyKey) ? NodeArena.NoNode : nodes[ slot];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the node handles for the first count packed boards, as get() does for each one.  The home slots are found
+    // for all of them first, in a loop with no branches that the JIT can vectorize, and then probed.
+    public void getAll( long[] packedBoards, int[] theNodes, int count)
+    {
+        int mask = keys.length - 1;
+        for( int i=0; i< count; i++) {
+            theNodes[ i] = (int) ((packedBoards[ i] * 0x9E3779B97F4A7C15L) >>> hashShift);
+        }
+        for( int i=0; i< count; i++) {
+            int slot = theNodes[ i];
+            while( keys[ slot] != EmptyKey && keys[ slot] != packedBoards[ i]) {
+                slot = (slot + 1) & mask;
+            }
+            theNodes[ i] = (keys[ slot] == EmptyKey) ? NodeArena.NoNode : nodes[ slot];
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public void put( long packedBoard, int node)
+    {
+        int slot = slotOf( packedBoard);
+        if( keys[ slot] == EmptyKey) {
+            keys[ slot] = packedBoard;
+            size++;
+        }
+        nodes[ slot] = node;
+
+        if( size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Double the table, putting every entry back in its new slot
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldNodes = nodes;
+        keys = new long[ oldKeys.length * 2];
+        nodes = new int[ oldNodes.length * 2];
+        hashShift--;
+        for( int i=0; i< oldKeys.length; i++) {
+            if( oldKeys[ i] != EmptyKey) {
+                int slot = slotOf( oldKeys[ i]);
+                keys[ slot] = oldKeys[ i];
+                nodes[ slot] = oldNodes[ i];
+            }
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public int size()
+    {
+        return size;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return size + " boards";
+    }
+}//end class NodeIndex
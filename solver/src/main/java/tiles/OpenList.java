@@ -0,0 +1,28 @@
+package tiles;
+
+/**
+ * The ordered list of leaf nodes still to be expanded by the SearchTree, given by their NodeArena handles.
+ * remove() always returns a node with the lowest priority value, which is the most promising one.
+ */
+public interface OpenList {
+    void add( int node, int priority);
+    int remove();
+    int size();
+    boolean isEmpty();
+
+    //-----------------------------------------------------------------------------------------
+    // Get the priority of the node remove() would return next, without removing it.  The list must not be empty.
+    int lowestPriority();
+
+    //-----------------------------------------------------------------------------------------
+    // Pass every entry to the consumer, in an order such that adding them all to an empty open list of the same kind
+    // gives one that removes them in the same order, so a search can be saved and carried on later
+    void forEachEntry( EntryConsumer theConsumer);
+
+    //-----------------------------------------------------------------------------------------
+    // Interface for being given each entry by forEachEntry()
+    interface EntryConsumer
+    {
+        void accept( int node, int priority);
+    }
+}
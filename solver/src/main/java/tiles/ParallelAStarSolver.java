@@ -0,0 +1,358 @@
+package tiles;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Solve the puzzle with hash-distributed A* (HDA*) on several threads at once.  Every board has an owner thread,
+ * chosen by a hash of its packed value, and each thread keeps the open list, arena and index for only the boards
+ * it owns.  When a thread generates a board owned by another thread it does not touch that thread's data, but adds
+ * the board to a batch for it, and full batches are passed over through a lock-free queue (its mailbox).
+ *
+ * Threads do not expand boards in exactly the global f order, so the first solution found may not be the shortest.
+ * It is kept as the best so far, and the search goes on until no thread has a board left that could lead to a
+ * shorter one and no batches are still on their way.  A board reached again by a cheaper path is reopened as in
+ * SearchTree, so the solution found has the fewest possible moves.
+ */
+public class ParallelAStarSolver implements PuzzleSolver {
+    static final int BatchSize = 256;               // Boards sent to another thread at a time
+    static final int ExpansionsPerFlush = 64;       // Partial batches are sent after this many expansions
+    static final int NoSolution = Integer.MAX_VALUE;
+
+    private int numberOfWorkers;    // Number of threads searching
+    private Heuristic heuristic;    // Estimate of the moves left from each board, shared by all the threads
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the Manhattan distance heuristic
+    public ParallelAStarSolver( int theNumberOfWorkers) {
+        this( theNumberOfWorkers, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the heuristic to use
+    public ParallelAStarSolver( int theNumberOfWorkers, Heuristic theHeuristic) {
+        numberOfWorkers = theNumberOfWorkers;
+        heuristic = theHeuristic;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        // Keep the search state in a new object for this solve, so solves on different threads stay apart
+        return new Search( startBoard).run();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class holding the state of one solve, shared by all of its worker threads
+    private class Search
+    {
+        Board startBoard;
+        BoardLayout layout;                                     // Tables for the size of board being solved
+        Worker[] workers;
+        int workerBits;                                         // Bits of a node reference used for the worker
+        AtomicInteger bestCost = new AtomicInteger( NoSolution); // Number of moves in the best solution so far
+        volatile int bestGoalNode = NodeArena.NoNode;            // Node reference of the final board on that solution
+        AtomicLong unfinishedWork = new AtomicLong( numberOfWorkers); // Workers not idle plus batches in flight
+        volatile boolean finished = false;
+
+        Search( Board theStartBoard) {
+            startBoard = theStartBoard;
+            layout = startBoard.getLayout();
+            workerBits = 32 - Integer.numberOfLeadingZeros( Math.max( numberOfWorkers - 1, 1));
+            workers = new Worker[ numberOfWorkers];
+            for( int i = 0; i < numberOfWorkers; i++) {
+                workers[ i] = new Worker( i);
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        Solution run()
+        {
+            SearchStats stats = new SearchStats( "parallel");
+            if( ! layout.isPacked()) {
+                throw new IllegalArgumentException("HDA* needs a packed board, of at most " +
+                                                   BoardLayout.MaximumPackedDimension + "x" +
+                                                   BoardLayout.MaximumPackedDimension);
+            }
+            if( ! startBoard.isSolvable()) {
+                return stats.finish( new Solution( startBoard, startBoard, 0));
+            }
+            long rootPackedBoard = startBoard.getPackedValue();
+            workers[ ownerOf( rootPackedBoard)].addNode( rootPackedBoard, NodeArena.NoNode, 0, NodeArena.NoMove,
+                                                          heuristic.estimate( layout, rootPackedBoard));
+
+            // Start a thread per worker and wait for them all to finish
+            Thread[] threads = new Thread[ numberOfWorkers];
+            for( int i = 0; i < numberOfWorkers; i++) {
+                threads[ i] = new Thread( workers[ i], "HDA* worker " + i);
+                threads[ i].start();
+            }
+            for( int i = 0; i < numberOfWorkers; i++) {
+                try {
+                    threads[ i].join();
+                }
+                catch( InterruptedException e) {
+                    finished = true;
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException( "Interrupted while solving", e);
+                }
+                workers[ i].stats.noteClosedSetSize( workers[ i].allNodes.size());
+                stats.add( workers[ i].stats);
+            }
+
+            if( bestGoalNode == NodeArena.NoNode) {
+                return stats.finish( new Solution( startBoard, closestBoard(), (int) stats.nodesExpanded));
+            }
+            return stats.finish( new Solution( startBoard, findSolutionMoves( bestGoalNode), (int) stats.nodesExpanded));
+        }//end run()
+
+        //-------------------------------------------------------------------------------------
+        // Choose the worker that owns a board, from a multiplicative hash of its packed value
+        int ownerOf( long packedBoard)
+        {
+            long hash = packedBoard * 0x9E3779B97F4A7C15L;
+            return (int) ((hash >>> 32) % numberOfWorkers);
+        }
+
+        //-------------------------------------------------------------------------------------
+        // A node reference names a node in any worker's arena, with the worker in the low bits
+        int referenceOf( int worker, int node)
+        {
+            return (node << workerBits) | worker;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Walk back through the parent references from the final board, which may cross between workers
+        byte[] findSolutionMoves( int goalReference)
+        {
+            int workerMask = (1 << workerBits) - 1;
+            byte[] moves = new byte[ bestCost.get()];
+            int theReference = goalReference;
+            for( int i = moves.length - 1; i >= 0; i--) {
+                NodeArena nodes = workers[ theReference & workerMask].nodes;
+                int theNode = theReference >>> workerBits;
+                moves[ i] = (byte) nodes.getMove( theNode);
+                theReference = nodes.getParent( theNode);
+            }
+            return moves;
+        }
+
+        //-------------------------------------------------------------------------------------
+        Board closestBoard()
+        {
+            Worker closestWorker = null;
+            for( Worker theWorker : workers) {
+                if( theWorker.closestNode != NodeArena.NoNode && (closestWorker == null ||
+                    theWorker.nodes.getHeuristicValue( theWorker.closestNode) <
+                    closestWorker.nodes.getHeuristicValue( closestWorker.closestNode))) {
+                    closestWorker = theWorker;
+                }
+            }
+            if( closestWorker == null) {
+                return startBoard;
+            }
+            return new Board( layout, closestWorker.nodes.getBoard( closestWorker.closestNode));
+        }
+
+
+        //-------------------------------------------------------------------------------------
+        // Private inner class for one worker thread and the boards it owns
+        private class Worker implements Runnable
+        {
+            int workerNumber;
+            NodeArena nodes = new NodeArena();
+            NodeIndex allNodes = new NodeIndex();
+            BucketOpenList openList = new BucketOpenList( BucketOpenList.TieBreaking.LIFO);
+            ConcurrentLinkedQueue< long[]> mailbox = new ConcurrentLinkedQueue<>();
+            long[][] outgoingBatches = new long[ numberOfWorkers][];    // Batch being filled for each worker
+            int[] outgoingSizes = new int[ numberOfWorkers];            // Number of longs in each batch
+            SearchStats stats = new SearchStats();     // Counts for this worker's share of the search
+            int closestNode = NodeArena.NoNode;
+            boolean idle = false;
+
+            Worker( int theWorkerNumber) {
+                workerNumber = theWorkerNumber;
+            }
+
+            //---------------------------------------------------------------------------------
+            public void run()
+            {
+                int expansionsSinceFlush = 0;
+                while( ! finished) {
+                    receiveBatches();
+
+                    int theNode = nextNodeToExpand();
+                    if( theNode != NodeArena.NoNode) {
+                        expand( theNode);
+                        if( ++expansionsSinceFlush >= ExpansionsPerFlush) {
+                            sendAllBatches();
+                            expansionsSinceFlush = 0;
+                        }
+                        continue;
+                    }
+
+                    // Nothing left here that could beat the best solution.  Send what is waiting, then go idle.
+                    // Workers and batches are counted together, so the count only reaches 0 when the last
+                    // worker goes idle with no batches left to process, and no work can appear after that.
+                    sendAllBatches();
+                    expansionsSinceFlush = 0;
+                    if( ! idle) {
+                        idle = true;
+                        if( unfinishedWork.decrementAndGet() == 0) {
+                            finished = true;
+                        }
+                    }
+                    if( ! finished && mailbox.isEmpty()) {
+                        LockSupport.parkNanos( 20_000);
+                    }
+                }
+            }//end run()
+
+            //---------------------------------------------------------------------------------
+            // Add every board in the batches waiting in the mailbox
+            void receiveBatches()
+            {
+                long[] batch;
+                while( (batch = mailbox.poll()) != null) {
+                    // Count this worker as busy again before the batch stops counting, so the count never
+                    // passes through 0 on the way
+                    if( idle) {
+                        idle = false;
+                        unfinishedWork.incrementAndGet();
+                    }
+                    for( int i = 0; i < batch.length && batch[ i + 1] != 0; i += 2) {
+                        long details = batch[ i + 1];
+                        addNode( batch[ i], (int) (details >>> 32), (int) ((details >>> 16) & 0xFFFF),
+                                 (int) (details & 0xFF) - 1, (int) ((details >>> 8) & 0xFF));
+                    }
+                    unfinishedWork.decrementAndGet();
+                }
+            }
+
+            //---------------------------------------------------------------------------------
+            // Remove the best node from the open list, skipping stale entries.  Return NodeArena.NoNode if no
+            // node is left with f less than the best solution's cost.
+            int nextNodeToExpand()
+            {
+                while( ! openList.isEmpty()) {
+                    int theNode = openList.remove();
+                    if( nodes.getCost( theNode) + nodes.getHeuristicValue( theNode) >= bestCost.get()) {
+                        // This node can never lead to a shorter solution, and since the best solution's cost only
+                        // goes down, it never will.  Drop it.
+                        continue;
+                    }
+                    if( ! nodes.isExpanded( theNode)) {
+                        nodes.setExpanded( theNode, true);
+                        return theNode;
+                    }
+                }
+                return NodeArena.NoNode;
+            }
+
+            //---------------------------------------------------------------------------------
+            void expand( int theNode)
+            {
+                long packedBoard = nodes.getBoard( theNode);
+                int heuristicValue = nodes.getHeuristicValue( theNode);
+                int cost = nodes.getCost( theNode);
+                if( packedBoard == layout.finalPackedBoard) {
+                    // Found the final board.  Keep it if this is the cheapest way to it so far.
+                    int previousBest;
+                    while( cost < (previousBest = bestCost.get())) {
+                        if( bestCost.compareAndSet( previousBest, cost)) {
+                            bestGoalNode = referenceOf( workerNumber, theNode);
+                            break;
+                        }
+                    }
+                    return;
+                }
+                if( closestNode == NodeArena.NoNode || heuristicValue < nodes.getHeuristicValue( closestNode)) {
+                    closestNode = theNode;
+                }
+
+                stats.nodesExpanded++;
+                stats.noteOpenListSize( openList.size());
+                int parentReference = referenceOf( workerNumber, theNode);
+                for( int fromIndex : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                    long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+                    stats.nodesGenerated++;
+                    int newHeuristicValue = heuristic.estimateAfterMove( layout, packedBoard, heuristicValue, fromIndex);
+                    int owner = ownerOf( newPackedBoard);
+                    if( owner == workerNumber) {
+                        addNode( newPackedBoard, parentReference, cost + 1, fromIndex, newHeuristicValue);
+                    }
+                    else {
+                        addToBatch( owner, newPackedBoard, parentReference, cost + 1, fromIndex, newHeuristicValue);
+                    }
+                }
+            }//end expand()
+
+            //---------------------------------------------------------------------------------
+            // Add a board owned by this worker, or move its node onto a cheaper path if it is already known
+            void addNode( long packedBoard, int parentReference, int cost, int move, int heuristicValue)
+            {
+                int existingNode = allNodes.get( packedBoard);
+                if( existingNode == NodeArena.NoNode) {
+                    int theNewNode = nodes.add( packedBoard, parentReference, cost, move, heuristicValue);
+                    allNodes.put( packedBoard, theNewNode);
+                    openList.add( theNewNode, cost + heuristicValue);
+                }
+                else if( cost < nodes.getCost( existingNode)) {
+                    nodes.setParent( existingNode, parentReference);
+                    nodes.setCost( existingNode, cost);
+                    nodes.setMove( existingNode, move);
+                    nodes.setExpanded( existingNode, false);
+                    openList.add( existingNode, cost + heuristicValue);
+                    stats.nodesReopened++;
+                }
+                else {
+                    stats.duplicatesRejected++;
+                }
+            }
+
+            //---------------------------------------------------------------------------------
+            // Add a board to the batch for another worker, sending the batch if it is full.  Each board takes two
+            // longs: the packed board, then the parent reference, cost, heuristic value and move + 1 packed
+            // together.  The move is stored plus one so the second long is never 0, which marks the end of a
+            // batch that is not full.
+            void addToBatch( int owner, long packedBoard, int parentReference, int cost, int move, int heuristicValue)
+            {
+                if( outgoingBatches[ owner] == null) {
+                    outgoingBatches[ owner] = new long[ 2 * BatchSize];
+                }
+                long[] batch = outgoingBatches[ owner];
+                int size = outgoingSizes[ owner];
+                batch[ size] = packedBoard;
+                batch[ size + 1] = ((long) parentReference << 32) | ((long) cost << 16) | (heuristicValue << 8) | (move + 1);
+                outgoingSizes[ owner] = size + 2;
+                if( size + 2 == batch.length) {
+                    sendBatch( owner);
+                }
+            }
+
+            //---------------------------------------------------------------------------------
+            void sendBatch( int owner)
+            {
+                unfinishedWork.incrementAndGet();
+                workers[ owner].mailbox.add( outgoingBatches[ owner]);
+                outgoingBatches[ owner] = null;
+                outgoingSizes[ owner] = 0;
+            }
+
+            //---------------------------------------------------------------------------------
+            void sendAllBatches()
+            {
+                for( int owner = 0; owner < numberOfWorkers; owner++) {
+                    if( outgoingSizes[ owner] > 0) {
+                        sendBatch( owner);
+                    }
+                }
+            }
+        }//end class Worker
+    }//end class Search
+}//end class ParallelAStarSolver
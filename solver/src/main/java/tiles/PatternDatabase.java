@@ -0,0 +1,359 @@
+package tiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A set of additive, disjoint pattern databases for one board size, made by PatternDatabaseBuilder.  The pieces are
+ * split into patterns such as 6-6-3 for the 4x4 board, and for each pattern the database holds the fewest moves of
+ * that pattern's own pieces needed to bring them home from every placement of them, whatever the other pieces do.
+ * No move is counted by two patterns, so the values for a board can be added up and still never overestimate.
+ *
+ * A placement is indexed by the squares of the pattern's pieces, ranked as a partial permutation, so each pattern
+ * takes one byte for each of its n!/(n-k)! placements.  The file holds the board dimension, then each pattern's
+ * pieces followed by its bytes.
+ *
+ * Reflecting a board across its main diagonal, as BoardLayout.transpose() does, leaves the final board the same, so
+ * a placement of some pieces needs as many moves as the reflected placement of the reflected pieces.  A pattern
+ * whose pieces are the reflections of an earlier pattern's therefore has no bytes of its own: its placements are
+ * reflected and looked up in the earlier pattern's bytes, and the file leaves them out.  Splitting the 4x4 pieces
+ * into those above the diagonal, those below it and those on it takes half the memory of two separate 6-piece
+ * patterns that way, but it is a much weaker estimate than the default split, so it is not the default.
+ *
+ * When the patterns are not all reflections of patterns in the set, as with the default ones, the reflected board
+ * is a different board for them that needs the same number of moves, so it is looked up as well, and the larger
+ * estimate of the two is used.  That takes no more memory and halves the boards IDA* expands on the 4x4 board.
+ */
+public class PatternDatabase {
+    static final int FileMagic = 0x54504442;       // "TPDB", at the start of every pattern database file
+    static final int Unreached = 0xFF;              // Value for placements the builder did not reach
+    static final int NoPattern = -1;                // Returned by reflectedPatternOf() for a pattern with its own bytes
+
+    // Standard split of the pieces into patterns for each dimension, which the builder uses by default
+    static final int[][][] DefaultPatterns = {
+            null, null,
+            { { 1, 2, 3}},
+            { { 1, 2, 3, 4}, { 5, 6, 7, 8}},
+            { { 1, 5, 6, 9, 10, 13}, { 7, 8, 11, 12, 14, 15}, { 2, 3, 4}}
+    };
+
+    private static final PatternDatabase[] DefaultDatabases = new PatternDatabase[ BoardLayout.MaximumDimension + 1];
+
+    // The fields are final, so a PatternDatabase can be handed between threads without locking
+    private final BoardLayout layout;     // Size of board the patterns are for
+    private final int[][] patterns;       // Pieces in each pattern
+    private final byte[][] distances;     // Moves for each placement of each pattern, or null for a reflected one
+    private final int[] patternOfPiece;   // Which pattern each piece is in
+    private final int[] tableOfPattern;   // Pattern whose distances each pattern is looked up in, which may be itself
+    private final int[][] lookupPieces;   // Pieces whose squares give the placement in that table, in its order
+    private final int[][] lookupSquares;  // Square each square is looked up as, which is reflected for a reflection
+    private final boolean usesReflectedBoard;   // True if the reflected board can give a different estimate
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor from patterns and their distances, such as those found by PatternDatabaseBuilder.  The distances
+    // of a pattern that reflects an earlier one are not used, and can be null.
+    public PatternDatabase( BoardLayout theLayout, int[][] thePatterns, byte[][] theDistances) {
+        layout = theLayout;
+        patterns = thePatterns;
+        distances = theDistances;
+
+        patternOfPiece = new int[ layout.boardSize];
+        tableOfPattern = new int[ patterns.length];
+        lookupPieces = new int[ patterns.length][];
+        lookupSquares = new int[ patterns.length][];
+        int[] sameSquares = new int[ layout.boardSize];
+        for( int square=0; square< layout.boardSize; square++) {
+            sameSquares[ square] = square;
+        }
+        boolean[] pieceSeen = new boolean[ layout.boardSize];
+        for( int pattern=0; pattern< patterns.length; pattern++) {
+            int reflectedPattern = reflectedPatternOf( layout, patterns, pattern);
+            if( reflectedPattern == NoPattern) {
+                if( distances[ pattern] == null ||
+                    distances[ pattern].length != numberOfPlacements( layout, patterns[ pattern].length)) {
+                    throw new IllegalArgumentException("Pattern " + pattern + " has the wrong number of distances");
+                }
+                tableOfPattern[ pattern] = pattern;
+                lookupPieces[ pattern] = patterns[ pattern];
+                lookupSquares[ pattern] = sameSquares;
+            }
+            else {
+                // On the reflected board, piece i of the earlier pattern is on the reflection of the square of its
+                // own reflection on this board
+                tableOfPattern[ pattern] = reflectedPattern;
+                lookupPieces[ pattern] = new int[ patterns[ pattern].length];
+                for( int i=0; i< lookupPieces[ pattern].length; i++) {
+                    lookupPieces[ pattern][ i] = layout.transposedPiece[ patterns[ reflectedPattern][ i]];
+                }
+                lookupSquares[ pattern] = layout.transposedSquare;
+            }
+            for( int piece : patterns[ pattern]) {
+                if( piece <= 0 || piece >= layout.boardSize || pieceSeen[ piece]) {
+                    throw new IllegalArgumentException("Patterns must split the pieces 1 to " + (layout.boardSize - 1) +
+                                                       " with each in exactly one pattern");
+                }
+                pieceSeen[ piece] = true;
+                patternOfPiece[ piece] = pattern;
+            }
+        }
+        for( int piece=1; piece< layout.boardSize; piece++) {
+            if( ! pieceSeen[ piece]) {
+                throw new IllegalArgumentException("Piece " + piece + " is in none of the patterns");
+            }
+        }
+
+        // The estimate of a reflected board is the same if every pattern's reflection is one of the patterns
+        boolean allReflected = true;
+        for( int pattern=0; pattern< patterns.length; pattern++) {
+            boolean hasReflection = false;
+            for( int otherPattern=0; otherPattern< patterns.length; otherPattern++) {
+                hasReflection |= patterns[ otherPattern].length == patterns[ pattern].length &&
+                                 hasReflectedPieces( layout, patterns[ pattern], patterns[ otherPattern]);
+            }
+            allReflected &= hasReflection;
+        }
+        usesReflectedBoard = ! allReflected;
+    }//end PatternDatabase()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the file name the databases for a board size are read from by default, such as 15tiles-patterns.bin
+    static String defaultFileName( BoardLayout layout)
+    {
+        return (layout.boardSize - 1) + "tiles-patterns.bin";
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find an earlier pattern whose pieces, reflected across the main diagonal, are the pieces of a pattern, in any
+    // order, or NoPattern.  Patterns with reflected pieces are not checked, since they have no distances of their own.
+    static int reflectedPatternOf( BoardLayout layout, int[][] patterns, int pattern)
+    {
+        for( int earlierPattern=0; earlierPattern< pattern; earlierPattern++) {
+            if( patterns[ earlierPattern].length == patterns[ pattern].length &&
+                reflectedPatternOf( layout, patterns, earlierPattern) == NoPattern &&
+                hasReflectedPieces( layout, patterns[ earlierPattern], patterns[ pattern])) {
+                return earlierPattern;
+            }
+        }
+        return NoPattern;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if every piece of one pattern is the reflection of a piece of another the same size
+    private static boolean hasReflectedPieces( BoardLayout layout, int[] pieces, int[] otherPieces)
+    {
+        int otherMask = 0;
+        for( int piece : otherPieces) {
+            otherMask |= 1 << piece;
+        }
+        for( int piece : pieces) {
+            if( (otherMask & (1 << layout.transposedPiece[ piece])) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the number of placements of k pieces on the board, which is n!/(n-k)!
+    static int numberOfPlacements( BoardLayout layout, int numberOfPieces)
+    {
+        int placements = 1;
+        for( int i=0; i< numberOfPieces; i++) {
+            placements *= layout.boardSize - i;
+        }
+        return placements;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the index of a placement of some pieces, given the square of each piece 4 bits apiece in the same order
+    // as the pattern.  Each square is ranked among the squares not already used by an earlier piece.
+    static int placementIndex( BoardLayout layout, long squaresOfPieces, int numberOfPieces)
+    {
+        int index = 0;
+        int squaresUsed = 0;     // Bit mask of the squares of the pieces ranked so far
+        for( int i=0; i< numberOfPieces; i++) {
+            int square = (int) ((squaresOfPieces >>> (i * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+            index = index * (layout.boardSize - i) + square - Integer.bitCount( squaresUsed & ((1 << square) - 1));
+            squaresUsed |= 1 << square;
+        }
+        return index;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the square of every piece on a packed board, 4 bits per piece indexed by piece
+    static long squaresOfAllPieces( BoardLayout layout, long packedBoard)
+    {
+        long squaresByPiece = 0;
+        for( int square=0; square< layout.boardSize; square++) {
+            squaresByPiece |= (long) square << (BoardLayout.pieceAt( packedBoard, square) * BoardLayout.BitsPerSquare);
+        }
+        return squaresByPiece;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Look up the moves for one pattern, given the square of every piece from squaresOfAllPieces()
+    private int patternDistance( int pattern, long squaresByPiece)
+    {
+        int[] pieces = lookupPieces[ pattern];
+        int[] squares = lookupSquares[ pattern];
+        long squaresOfPieces = 0;
+        for( int i=0; i< pieces.length; i++) {
+            int square = (int) ((squaresByPiece >>> (pieces[ i] * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+            squaresOfPieces |= (long) squares[ square] << (i * BoardLayout.BitsPerSquare);
+        }
+        return distances[ tableOfPattern[ pattern]][ placementIndex( layout, squaresOfPieces, pieces.length)] & 0xFF;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Add up the moves for every pattern on a packed board, and on its reflection if that can give more
+    public int estimate( long packedBoard)
+    {
+        int totalDistance = totalDistance( packedBoard);
+        if( usesReflectedBoard) {
+            totalDistance = Math.max( totalDistance, totalDistance( layout.transpose( packedBoard)));
+        }
+        return totalDistance;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Add up the moves for every pattern on a packed board, not reflected
+    private int totalDistance( long packedBoard)
+    {
+        long squaresByPiece = squaresOfAllPieces( layout, packedBoard);
+        int totalDistance = 0;
+        for( int pattern=0; pattern< patterns.length; pattern++) {
+            totalDistance += patternDistance( pattern, squaresByPiece);
+        }
+        return totalDistance;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // A move only changes the placement of the pattern holding the piece that moves, so only that one is looked up
+    // again, before and after the move.  The larger of two estimates cannot be updated that way, so when the
+    // reflected board is used the new board is estimated from scratch.
+    public int estimateAfterMove( long packedBoard, int heuristicValue, int fromIndex)
+    {
+        if( usesReflectedBoard) {
+            return estimate( layout.applyMove( packedBoard, fromIndex));
+        }
+        int toIndex = layout.blankIndexOf( packedBoard);
+        int pieceToMove = BoardLayout.pieceAt( packedBoard, fromIndex);
+        int pattern = patternOfPiece[ pieceToMove];
+
+        long squaresByPiece = squaresOfAllPieces( layout, packedBoard);
+        int oldDistance = patternDistance( pattern, squaresByPiece);
+        int pieceShift = pieceToMove * BoardLayout.BitsPerSquare;
+        squaresByPiece = (squaresByPiece & ~(BoardLayout.SquareMask << pieceShift)) | ((long) toIndex << pieceShift);
+        return heuristicValue - oldDistance + patternDistance( pattern, squaresByPiece);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public BoardLayout getLayout()
+    {
+        return layout;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Write the databases to a file, to be read back with read()
+    public void write( Path databaseFile) throws IOException
+    {
+        try( DataOutputStream output =
+                 new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( databaseFile)))) {
+            output.writeInt( FileMagic);
+            output.writeByte( layout.dimension);
+            output.writeByte( patterns.length);
+            for( int pattern=0; pattern< patterns.length; pattern++) {
+                output.writeByte( patterns[ pattern].length);
+                for( int piece : patterns[ pattern]) {
+                    output.writeByte( piece);
+                }
+                if( tableOfPattern[ pattern] == pattern) {
+                    output.write( distances[ pattern]);
+                }
+            }
+        }
+    }//end write()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Read databases written by write()
+    public static PatternDatabase read( Path databaseFile) throws IOException
+    {
+        try( DataInputStream input =
+                 new DataInputStream( new BufferedInputStream( Files.newInputStream( databaseFile)))) {
+            if( input.readInt() != FileMagic) {
+                throw new IOException( databaseFile + " is not a pattern database file");
+            }
+            BoardLayout layout = BoardLayout.forDimension( input.readUnsignedByte());
+            int[][] patterns = new int[ input.readUnsignedByte()][];
+            byte[][] distances = new byte[ patterns.length][];
+            for( int pattern=0; pattern< patterns.length; pattern++) {
+                patterns[ pattern] = new int[ input.readUnsignedByte()];
+                for( int i=0; i< patterns[ pattern].length; i++) {
+                    patterns[ pattern][ i] = input.readUnsignedByte();
+                }
+                if( reflectedPatternOf( layout, patterns, pattern) == NoPattern) {
+                    distances[ pattern] = new byte[ numberOfPlacements( layout, patterns[ pattern].length)];
+                    input.readFully( distances[ pattern]);
+                }
+            }
+            return new PatternDatabase( layout, patterns, distances);
+        }
+    }//end read()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the databases for a board size, read from defaultFileName() in the working directory the first time
+    // they are needed
+    public static synchronized PatternDatabase getDefault( BoardLayout layout)
+    {
+        if( DefaultDatabases[ layout.dimension] == null) {
+            Path databaseFile = Paths.get( defaultFileName( layout));
+            PatternDatabase theDatabase;
+            try {
+                theDatabase = read( databaseFile);
+            }
+            catch( IOException e) {
+                throw new IllegalStateException( "Cannot read the pattern databases " + databaseFile +
+                                                 ".  Build them with: java tiles.PatternDatabaseBuilder " + layout.dimension, e);
+            }
+            if( theDatabase.layout != layout) {
+                throw new IllegalStateException( databaseFile + " holds pattern databases for " + theDatabase.layout +
+                                                 " boards, not " + layout);
+            }
+            DefaultDatabases[ layout.dimension] = theDatabase;
+        }
+        return DefaultDatabases[ layout.dimension];
+    }//end getDefault()
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        StringBuilder description = new StringBuilder( layout + " patterns");
+        for( int pattern=0; pattern< patterns.length; pattern++) {
+            description.append( ' ').append( patterns[ pattern].length);
+            if( tableOfPattern[ pattern] != pattern) {
+                description.append( " reflected");
+            }
+        }
+        return description.toString();
+    }
+}//end class PatternDatabase
@@ -0,0 +1,172 @@
+package tiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Build-once tool that writes the file used by PatternDatabase.  Each pattern is built by a breadth-first search
+ * backwards from the final board, over the placements of the pattern's pieces and the blank.  The other pieces
+ * are all alike, and moving them costs nothing, so the blank can wander for free through the squares not held by
+ * a pattern piece.  The search therefore treats every square the blank can reach that way as one state, and
+ * counts only the moves of the pattern's pieces.  The first time a placement is reached gives its distance.
+ *
+ * Patterns of up to MaximumPatternSize pieces are supported, so the search state fits in an int.
+ *
+ * Usage: java tiles.PatternDatabaseBuilder [dimension] [file], where the dimension defaults to 4, for the 6-6-3
+ * patterns of the 15-puzzle, and the file defaults to 15tiles-patterns.bin
+ */
+public class PatternDatabaseBuilder {
+    static final int MaximumPatternSize = 6;
+    static final int DefaultDimension = 4;
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        BoardLayout layout = BoardLayout.forDimension( args.length > 0 ? Integer.parseInt( args[ 0]) : DefaultDimension);
+        if( ! layout.isPacked() || PatternDatabase.DefaultPatterns[ layout.dimension] == null) {
+            throw new IllegalArgumentException("There are no default patterns for " + layout + " boards");
+        }
+        Path databaseFile = Paths.get( args.length > 1 ? args[ 1] : PatternDatabase.defaultFileName( layout));
+
+        PatternDatabase theDatabase = build( layout, PatternDatabase.DefaultPatterns[ layout.dimension]);
+        theDatabase.write( databaseFile);
+        System.out.println("Wrote " + theDatabase + " to " + databaseFile);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Build the database of every pattern, except those that reflect an earlier pattern and are looked up in its
+    // distances
+    static PatternDatabase build( BoardLayout layout, int[][] patterns)
+    {
+        byte[][] distances = new byte[ patterns.length][];
+        for( int pattern=0; pattern< patterns.length; pattern++) {
+            if( PatternDatabase.reflectedPatternOf( layout, patterns, pattern) == PatternDatabase.NoPattern) {
+                distances[ pattern] = buildPattern( layout, patterns[ pattern]);
+            }
+        }
+        return new PatternDatabase( layout, patterns, distances);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the distance of every placement of one pattern's pieces.  A state holds the square of each pattern piece,
+    // 4 bits each, with the lowest square the blank can reach above them.
+    static byte[] buildPattern( BoardLayout layout, int[] pieces)
+    {
+        int numberOfPieces = pieces.length;
+        if( numberOfPieces > MaximumPatternSize) {
+            throw new IllegalArgumentException("Patterns can have at most " + MaximumPatternSize + " pieces");
+        }
+        int blankShift = numberOfPieces * BoardLayout.BitsPerSquare;
+        int squaresMask = (1 << blankShift) - 1;
+
+        byte[] distances = new byte[ PatternDatabase.numberOfPlacements( layout, numberOfPieces)];
+        Arrays.fill( distances, (byte) PatternDatabase.Unreached);
+        long[] statesSeen = new long[ (int) (((long) distances.length * layout.boardSize + 63) / 64)];
+
+        // Bit mask of the squares next to each square
+        int[] neighbourMasks = new int[ layout.boardSize];
+        for( int square=0; square< layout.boardSize; square++) {
+            for( int neighbour : layout.neighbourSquares[ square]) {
+                neighbourMasks[ square] |= 1 << neighbour;
+            }
+        }
+
+        // Start from the final board, with each piece on the square before its number and the blank in the last square
+        int startSquares = 0;
+        int startMask = 0;
+        for( int i=0; i< numberOfPieces; i++) {
+            startSquares |= (pieces[ i] - 1) << (i * BoardLayout.BitsPerSquare);
+            startMask |= 1 << (pieces[ i] - 1);
+        }
+        int startBlank = Integer.numberOfTrailingZeros( reachableSquares( layout.boardSize - 1, startMask, neighbourMasks));
+        int[] queue = new int[ 1024];
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[ queueTail++] = startSquares | (startBlank << blankShift);
+        int startIndex = PatternDatabase.placementIndex( layout, startSquares, numberOfPieces);
+        markSeen( statesSeen, (long) startIndex * layout.boardSize + startBlank);
+
+        // Expand one layer of states at a time, each layer one pattern move further from the final board
+        for( int distance=0; queueHead < queueTail; distance++) {
+            int layerEnd = queueTail;
+            while( queueHead < layerEnd) {
+                int state = queue[ queueHead++];
+                int squares = state & squaresMask;
+                int index = PatternDatabase.placementIndex( layout, squares, numberOfPieces);
+                if( (distances[ index] & 0xFF) == PatternDatabase.Unreached) {
+                    distances[ index] = (byte) distance;
+                }
+
+                int patternMask = 0;
+                for( int i=0; i< numberOfPieces; i++) {
+                    patternMask |= 1 << ((squares >>> (i * BoardLayout.BitsPerSquare)) & BoardLayout.SquareMask);
+                }
+
+                // Move each pattern piece next to a square the blank can reach into that square
+                int blankSquares = reachableSquares( state >>> blankShift, patternMask, neighbourMasks);
+                for( int i=0; i< numberOfPieces; i++) {
+                    int pieceShift = i * BoardLayout.BitsPerSquare;
+                    int pieceSquare = (squares >>> pieceShift) & (int) BoardLayout.SquareMask;
+                    int targets = neighbourMasks[ pieceSquare] & blankSquares;
+                    while( targets != 0) {
+                        int target = Integer.numberOfTrailingZeros( targets);
+                        targets &= targets - 1;
+
+                        int newSquares = (squares & ~((int) BoardLayout.SquareMask << pieceShift)) | (target << pieceShift);
+                        int newMask = (patternMask & ~(1 << pieceSquare)) | (1 << target);
+                        int newBlank = Integer.numberOfTrailingZeros( reachableSquares( pieceSquare, newMask, neighbourMasks));
+                        long newState = (long) PatternDatabase.placementIndex( layout, newSquares, numberOfPieces) *
+                                        layout.boardSize + newBlank;
+                        if( markSeen( statesSeen, newState)) {
+                            if( queueTail == queue.length) {
+                                // Drop the states already expanded before growing the queue
+                                queue = Arrays.copyOfRange( queue, queueHead, queueHead + Math.max( queue.length * 2, 1024));
+                                queueTail -= queueHead;
+                                layerEnd -= queueHead;
+                                queueHead = 0;
+                            }
+                            queue[ queueTail++] = newSquares | (newBlank << blankShift);
+                        }
+                    }
+                }
+            }
+        }
+        return distances;
+    }//end buildPattern()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the squares the blank can reach from some square without moving a pattern piece, as a bit mask
+    static int reachableSquares( int fromSquare, int patternMask, int[] neighbourMasks)
+    {
+        int reachable = 1 << fromSquare;
+        int frontier = reachable;
+        while( frontier != 0) {
+            int next = 0;
+            while( frontier != 0) {
+                next |= neighbourMasks[ Integer.numberOfTrailingZeros( frontier)];
+                frontier &= frontier - 1;
+            }
+            frontier = next & ~patternMask & ~reachable;
+            reachable |= frontier;
+        }
+        return reachable;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Mark a state as seen, returning true if it had not been seen before
+    private static boolean markSeen( long[] statesSeen, long state)
+    {
+        int word = (int) (state >>> 6);
+        long bit = 1L << state;
+        if( (statesSeen[ word] & bit) != 0) {
+            return false;
+        }
+        statesSeen[ word] |= bit;
+        return true;
+    }
+}//end class PatternDatabaseBuilder
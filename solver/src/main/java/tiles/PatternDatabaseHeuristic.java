@@ -0,0 +1,81 @@
+package tiles;
+
+/**
+ * The additive pattern database heuristic: the moves each pattern's own pieces need, looked up in a PatternDatabase
+ * and added up.  Each pattern needs at least the Manhattan distance of its pieces, so this is never less than the
+ * Manhattan distance, and on hard boards it is usually much more, which cuts the boards a search expands by orders
+ * of magnitude.  The reflection of the board across its main diagonal needs the same moves, so it is looked up as
+ * well when the patterns can give it a larger estimate, as PatternDatabase describes.
+ *
+ * By default the databases for each board size are read from their default file the first time a board of that
+ * size is estimated.  Boards of up to 4x4 are supported.
+ */
+public class PatternDatabaseHeuristic implements Heuristic {
+    private PatternDatabase theDatabase;        // Databases to use, or null to use PatternDatabase.getDefault()
+    private PatternDatabase[] defaultDatabases = new PatternDatabase[ BoardLayout.MaximumDimension + 1];
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the default database file for each board size
+    public PatternDatabaseHeuristic() {
+        this( null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the databases to use, which only cover their own board size
+    public PatternDatabaseHeuristic( PatternDatabase aDatabase) {
+        theDatabase = aDatabase;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get the databases for a board size.  A default one is kept here once found, so searches on several threads
+    // do not all wait on PatternDatabase.getDefault() for every board.
+    private PatternDatabase databaseFor( BoardLayout layout)
+    {
+        if( theDatabase != null) {
+            if( theDatabase.getLayout() != layout) {
+                throw new IllegalArgumentException("The pattern databases are for " + theDatabase.getLayout() +
+                                                   " boards, not " + layout);
+            }
+            return theDatabase;
+        }
+        PatternDatabase defaultDatabase = defaultDatabases[ layout.dimension];
+        if( defaultDatabase == null) {
+            defaultDatabase = PatternDatabase.getDefault( layout);
+            defaultDatabases[ layout.dimension] = defaultDatabase;
+        }
+        return defaultDatabase;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public int estimate( BoardLayout layout, long packedBoard)
+    {
+        return databaseFor( layout).estimate( packedBoard);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int estimateAfterMove( BoardLayout layout, long packedBoard, int heuristicValue, int fromIndex)
+    {
+        return databaseFor( layout).estimateAfterMove( packedBoard, heuristicValue, fromIndex);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // The databases are found once for the whole batch
+    public void estimateAfterMoves( BoardLayout layout, long[] packedBoards, int[] heuristicValues, int[] fromIndices,
+                                    int count)
+    {
+        PatternDatabase theDatabase = databaseFor( layout);
+        for( int i=0; i< count; i++) {
+            heuristicValues[ i] =
+                    theDatabase.estimateAfterMove( packedBoards[ i], heuristicValues[ i], fromIndices[ i]);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return "pdb";
+    }
+}//end class PatternDatabaseHeuristic
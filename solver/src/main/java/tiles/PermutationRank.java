@@ -0,0 +1,90 @@
+package tiles;
+
+/**
+ * Perfect hash of 3x3 board configurations.  Each board is a permutation of the pieces 0..8, and its Lehmer code
+ * gives it a unique rank from 0 to 9!-1.  The rank can be used directly as an array index, so lookup structures
+ * indexed by it need no hashing, no boxed keys and no collision handling.  Larger boards have far too many ranks
+ * for that, so only the 3x3 distance table uses them.
+ *
+ * The distance table keeps one entry for a board and its reflection across the main diagonal, which need the same
+ * number of moves, so it uses symmetryRank() instead.  That ranks BoardLayout.canonical() of the board, whose blank
+ * is never above the diagonal, so it is the blank's square among the 6 left to it, then the order of the other 8
+ * pieces.  This takes 2/3 of the ranks of rank().
+ */
+public class PermutationRank {
+    static final BoardLayout Layout = BoardLayout.forDimension( 3);     // Layout of the boards that are ranked
+    static final int NumberOfRanks = 362880;     // 9!, the number of distinct arrangements of the pieces
+
+    // Factorials of 0..8, the place values of the Lehmer code digits
+    static final int[] Factorials = { 1, 1, 2, 6, 24, 120, 720, 5040, 40320 };
+
+    // Number of each square on or below the main diagonal, where the blank of a canonical board is, or -1 above it
+    private static final int[] BlankSquareNumbers = { 0, -1, -1, 1, 2, -1, 3, 4, 5 };
+    static final int NumberOfSymmetryRanks = 6 * 40320;     // Blank squares, times 8! orders of the other pieces
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the rank of a packed board value.  Each square contributes the number of smaller pieces that come
+    // after it, which is the piece value less the number of smaller pieces already seen, times its place value.
+    static int rank( long packedValue)
+    {
+        int rankValue = 0;
+        int piecesSeen = 0;      // Bit mask of the pieces found so far
+        for( int i=0; i< Layout.boardSize; i++) {
+            int piece = BoardLayout.pieceAt( packedValue, i);
+            int smallerPiecesSeen = Integer.bitCount( piecesSeen & ((1 << piece) - 1));
+            rankValue += (piece - smallerPiecesSeen) * Factorials[ Layout.boardSize - 1 - i];
+            piecesSeen |= 1 << piece;
+        }
+        return rankValue;
+    }//end rank()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the packed board value with the given rank, reversing rank()
+    static long unrank( int rankValue)
+    {
+        int[] pieces = new int[ Layout.boardSize];
+        int piecesUsed = 0;      // Bit mask of the pieces placed so far
+        for( int i=0; i< Layout.boardSize; i++) {
+            int placeValue = Factorials[ Layout.boardSize - 1 - i];
+            int smallerPiecesLeft = rankValue / placeValue;
+            rankValue %= placeValue;
+
+            // Find the unused piece that has smallerPiecesLeft unused pieces below it
+            int piece = 0;
+            while( (piecesUsed & (1 << piece)) != 0 || smallerPiecesLeft > 0) {
+                if( (piecesUsed & (1 << piece)) == 0) {
+                    smallerPiecesLeft--;
+                }
+                piece++;
+            }
+            pieces[ i] = piece;
+            piecesUsed |= 1 << piece;
+        }
+        return Layout.pack( pieces);
+    }//end unrank()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the rank shared by a packed board and its reflection, from the blank square of the canonical board and
+    // the Lehmer code of its other pieces, numbered 0..7
+    static int symmetryRank( long packedValue)
+    {
+        long canonicalValue = Layout.canonical( packedValue);
+        int blankSquare = Layout.blankIndexOf( canonicalValue);
+        int rankValue = 0;
+        int piecesSeen = 0;      // Bit mask of the pieces found so far
+        int placeValue = Layout.boardSize - 2;
+        for( int i=0; i< Layout.boardSize; i++) {
+            if( i != blankSquare) {
+                int piece = BoardLayout.pieceAt( canonicalValue, i) - 1;
+                int smallerPiecesSeen = Integer.bitCount( piecesSeen & ((1 << piece) - 1));
+                rankValue += (piece - smallerPiecesSeen) * Factorials[ placeValue--];
+                piecesSeen |= 1 << piece;
+            }
+        }
+        return BlankSquareNumbers[ blankSquare] * Factorials[ Layout.boardSize - 1] + rankValue;
+    }//end symmetryRank()
+
+}//end class PermutationRank
@@ -0,0 +1,18 @@
+package tiles;
+
+/**
+ * A search engine that can solve the puzzle from some starting board.  Every engine returns its result as a
+ * Solution, so the driver can use any of them the same way.
+ *
+ * Each call to solve() keeps its search state to itself, so one PuzzleSolver can be used by several threads at once.
+ */
+public interface PuzzleSolver {
+    Solution solve( Board startBoard);
+
+    //-----------------------------------------------------------------------------------------
+    // Return true if every solution found has the fewest possible moves, which most engines guarantee
+    default boolean findsShortestSolution()
+    {
+        return true;
+    }
+}
@@ -0,0 +1,470 @@
+package tiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Save the state of a SearchTree to a file every so often, so a long search that is stopped can be carried on by a
+ * later run from where it was last saved, and give the same solution as if it had never stopped.
+ *
+ * The file is a header naming the search, followed by one segment for each checkpoint, only ever appended to.  Nodes
+ * are only added to the NodeArena, so a segment holds the nodes added since the last checkpoint, plus the nodes
+ * before that which were expanded or moved to a cheaper path since then, which are noted as the search goes.  Each
+ * segment also holds the search counters, the best cached solution, and all of the open list, which is small next
+ * to the nodes since it holds only two ints for each entry.  Replaying the segments in order gives back the nodes, and
+ * the last one gives everything else.
+ *
+ * A segment is written, and read back, through one direct buffer of ChunkBytes, so the memory used stays the same
+ * however many nodes a segment holds.  Only forcing it to disk, which is the slow part, is left to another thread
+ * while the search goes on, and a checkpoint is skipped until that is done.  Each segment has its length at the start
+ * and a CRC at the end, so one cut short by the process being killed is found and dropped on resuming.
+ *
+ * A checkpoint file is for one search: resuming checks that the start board, weight and heuristic are the same, and
+ * a file for some other search is replaced.  The file is deleted once the search finishes.
+ */
+public class SearchCheckpoint {
+    static final long Magic = 0x54494C45534B5054L;      // "TILESKPT", at the start of every checkpoint file
+    static final int Version = 2;
+    static final int SegmentMarker = 0x5345474D;        // "SEGM", at the start of every segment
+    static final int CheckEveryExpansions = 1024;       // Expansions between looks at the clock
+    static final int NewNodeBytes = 20;                 // Board, parent, cost, move, heuristic value and expanded
+    static final int ChangedNodeBytes = 14;             // Handle, parent, cost, move and expanded
+    static final int SegmentHeaderBytes = 4 + 8;        // Marker, then the length of the payload
+    static final int ChunkBytes = 1 << 20;              // Size of the buffer segments are written and read through
+
+    private Path checkpointFile;
+    private long intervalNanos;                 // Time between checkpoints
+    private long nextCheckpointNanos;           // Clock after which the next checkpoint is taken
+    private long nextClockCheckExpansions = 0;  // Expansions after which the clock is next read
+    private FileChannel theChannel;             // Open on the file while the search runs
+    private ExecutorService writer;             // Thread writing segments
+    private Future< ?> pendingWrite;            // Segment being forced to disk, or null
+    private ByteBuffer chunk;                   // Part of a segment being written or read
+    private CRC32 segmentChecksum = new CRC32();    // CRC of the segment being written, up to the chunk
+    private long segmentBytesWritten;           // Bytes of the segment being written, up to the chunk
+    private long readPosition;                  // Place in the file the chunk is next read from
+    private int nodesSaved = 0;                 // Nodes in the arena when the last checkpoint was taken
+    private int[] changedNodes = new int[ 1024];    // Saved nodes changed since the last checkpoint, maybe repeated
+    private int numberOfChangedNodes = 0;
+    int checkpointsTaken = 0;                   // Segments written by this run
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for checkpoints of a search in the given file, taken at most once every interval
+    public SearchCheckpoint( Path theCheckpointFile, long intervalMillis) {
+        checkpointFile = theCheckpointFile;
+        intervalNanos = intervalMillis * 1_000_000;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Open the checkpoint file for a search that is about to start.  If it holds checkpoints of the same search,
+    // load the last one into the search tree and return true.  Otherwise start a new file and return false.
+    boolean resume( SearchTree theTree)
+    {
+        try {
+            chunk = ByteBuffer.allocateDirect( ChunkBytes);
+            boolean isResumed = Files.exists( checkpointFile) && load( theTree);
+            if( ! isResumed) {
+                theChannel = FileChannel.open( checkpointFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+                writeFully( header( theTree));
+            }
+            nextCheckpointNanos = System.nanoTime() + intervalNanos;
+            return isResumed;
+        }
+        catch( IOException e) {
+            throw new UncheckedIOException( "Cannot use the checkpoint file " + checkpointFile, e);
+        }
+    }//end resume()
+
+    //-----------------------------------------------------------------------------------------
+    // Make the header naming a search
+    private static ByteBuffer header( SearchTree theTree)
+    {
+        byte[] heuristicName = theTree.heuristic.getClass().getName().getBytes( StandardCharsets.UTF_8);
+        ByteBuffer theHeader = ByteBuffer.allocate( 8 + 4 + 4 + 8 + 4 + 4 + heuristicName.length);
+        theHeader.putLong( Magic).putInt( Version).putInt( theTree.layout.dimension);
+        theHeader.putLong( theTree.nodes.getBoard( theTree.rootNode)).putInt( theTree.weightTimesScale);
+        theHeader.putInt( heuristicName.length).put( heuristicName);
+        return theHeader.flip();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Whether a checkpoint should be taken now, after the given number of expansions.  The clock is only read once
+    // every CheckEveryExpansions or more, since the count can go up by a whole block of nodes at a time, and not
+    // while the last checkpoint is still being written.
+    boolean isDue( long nodesExpanded)
+    {
+        if( nodesExpanded < nextClockCheckExpansions) {
+            return false;
+        }
+        nextClockCheckExpansions = nodesExpanded + CheckEveryExpansions;
+        return System.nanoTime() >= nextCheckpointNanos && (pendingWrite == null || pendingWrite.isDone());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Note that a node was changed, so it is saved again if it was saved before
+    void noteChanged( int node)
+    {
+        if( node < nodesSaved) {
+            if( numberOfChangedNodes == changedNodes.length) {
+                changedNodes = Arrays.copyOf( changedNodes, 2 * changedNodes.length);
+            }
+            changedNodes[ numberOfChangedNodes++] = node;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Write the changes to the search since the last checkpoint to a segment, and start forcing it to disk on the
+    // writer thread.  Throw UncheckedIOException if the segment, or the last one, could not be written.
+    void take( SearchTree theTree)
+    {
+        waitForPendingWrite();
+        NodeArena nodes = theTree.nodes;
+        int numberOfNewNodes = nodes.size() - nodesSaved;
+        int cachedSuffixLength = (theTree.cachedSolutionSuffix == null) ? 0 : theTree.cachedSolutionSuffix.length;
+        long payloadBytes = 8 + (long) numberOfNewNodes * NewNodeBytes +
+                            4 + (long) numberOfChangedNodes * ChangedNodeBytes +
+                            4 * 4 + 9 * 8 + 3 * 4 + cachedSuffixLength +
+                            4 + 8L * theTree.bestNextNodeQueue.size();
+        chunk.clear();
+        chunk.putInt( SegmentMarker).putLong( payloadBytes);
+        flushChunk();
+        segmentChecksum.reset();
+        segmentBytesWritten = 0;
+
+        room( 8).putInt( nodesSaved).putInt( numberOfNewNodes);
+        for( int node = nodesSaved; node < nodes.size(); node++) {
+            room( NewNodeBytes).putLong( nodes.getBoard( node)).putInt( nodes.getParent( node))
+                               .putInt( nodes.getCost( node)).put( (byte) nodes.getMove( node))
+                               .putShort( (short) nodes.getHeuristicValue( node))
+                               .put( (byte) (nodes.isExpanded( node) ? 1 : 0));
+        }
+        room( 4).putInt( numberOfChangedNodes);
+        for( int i = 0; i < numberOfChangedNodes; i++) {
+            int node = changedNodes[ i];
+            room( ChangedNodeBytes).putInt( node).putInt( nodes.getParent( node)).putInt( nodes.getCost( node))
+                                   .put( (byte) nodes.getMove( node)).put( (byte) (nodes.isExpanded( node) ? 1 : 0));
+        }
+
+        SearchStats stats = theTree.stats;
+        room( 4 * 4 + 9 * 8 + 3 * 4);
+        chunk.putInt( theTree.currentNode).putInt( theTree.closestNode);
+        chunk.putInt( theTree.sizeOfBestNextNodeQueue).putInt( theTree.sizeOfAllNodes);
+        chunk.putLong( stats.nodesGenerated).putLong( stats.nodesExpanded).putLong( stats.duplicatesRejected);
+        chunk.putLong( stats.nodesReopened).putLong( stats.peakOpenListSize).putLong( stats.sampledExpansions);
+        chunk.putLong( stats.successorNanos).putLong( stats.hashingNanos).putLong( stats.queueNanos);
+        chunk.putInt( theTree.cachedSolutionNode).putInt( theTree.cachedSolutionCost).putInt( cachedSuffixLength);
+        if( cachedSuffixLength > 0) {
+            room( cachedSuffixLength).put( theTree.cachedSolutionSuffix);
+        }
+        room( 4).putInt( theTree.bestNextNodeQueue.size());
+        theTree.bestNextNodeQueue.forEachEntry( (node, priority) -> room( 8).putInt( node).putInt( priority));
+        flushChunk();
+        if( segmentBytesWritten != payloadBytes) {
+            throw new IllegalStateException( "Checkpoint segment of " + segmentBytesWritten + " bytes, not " +
+                                             payloadBytes);
+        }
+        chunk.putLong( segmentChecksum.getValue());
+        flushChunk();
+
+        nodesSaved = nodes.size();
+        numberOfChangedNodes = 0;
+        checkpointsTaken++;
+        nextCheckpointNanos = System.nanoTime() + intervalNanos;
+        if( writer == null) {
+            writer = Executors.newSingleThreadExecutor( task -> {
+                Thread theThread = new Thread( task, "SearchCheckpoint writer");
+                theThread.setDaemon( true);
+                return theThread;
+            });
+        }
+        pendingWrite = writer.submit( () -> {
+            theChannel.force( false);
+            return null;
+        });
+    }//end take()
+
+    //-----------------------------------------------------------------------------------------
+    // Get the chunk with room for the given number of bytes, writing out what it holds first if it is too full
+    private ByteBuffer room( int bytes)
+    {
+        if( chunk.remaining() < bytes) {
+            flushChunk();
+        }
+        return chunk;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Write out what the chunk holds, adding it to the segment's CRC and length, and empty it
+    private void flushChunk()
+    {
+        chunk.flip();
+        segmentChecksum.update( chunk.duplicate());
+        segmentBytesWritten += chunk.remaining();
+        try {
+            writeFully( chunk);
+        }
+        catch( IOException e) {
+            throw new UncheckedIOException( "Cannot write to the checkpoint file " + checkpointFile, e);
+        }
+        chunk.clear();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Wait for the segment being forced to disk, if there is one, throwing UncheckedIOException if it failed
+    private void waitForPendingWrite()
+    {
+        if( pendingWrite == null) {
+            return;
+        }
+        try {
+            pendingWrite.get();
+        }
+        catch( InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch( ExecutionException e) {
+            throw new UncheckedIOException( "Cannot write to the checkpoint file " + checkpointFile,
+                                            (e.getCause() instanceof IOException) ? (IOException) e.getCause()
+                                                                                  : new IOException( e.getCause()));
+        }
+        pendingWrite = null;
+    }//end waitForPendingWrite()
+
+    //-----------------------------------------------------------------------------------------
+    private void writeFully( ByteBuffer theBuffer) throws IOException
+    {
+        while( theBuffer.hasRemaining()) {
+            theChannel.write( theBuffer);
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // The search has finished, so stop writing and delete the file
+    void finish()
+    {
+        try {
+            waitForPendingWrite();
+        }
+        finally {
+            if( writer != null) {
+                writer.shutdown();
+            }
+            try {
+                if( theChannel != null) {
+                    theChannel.close();
+                }
+                Files.deleteIfExists( checkpointFile);
+            }
+            catch( IOException e) {
+                // Leaving the file behind only means the next search with it starts again
+            }
+        }
+    }//end finish()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Load the checkpoints in the file into a search tree that has only its root, if the file is for the same search.
+    // Replay the nodes of every whole segment, then restore the rest from the last.  Cut off a segment that was not
+    // written completely, so new segments follow the last good one.  Return whether the search was resumed.
+    private boolean load( SearchTree theTree) throws IOException
+    {
+        ByteBuffer expectedHeader = header( theTree);
+        theChannel = FileChannel.open( checkpointFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer fileHeader = ByteBuffer.allocate( expectedHeader.remaining());
+        if( ! readFully( fileHeader, 0) || ! fileHeader.flip().equals( expectedHeader)) {
+            theChannel.close();
+            return false;
+        }
+
+        long position = expectedHeader.limit();
+        long lastSearchPosition = -1;       // Where the counters and open list of the last whole segment start
+        ByteBuffer segmentHeader = ByteBuffer.allocate( SegmentHeaderBytes);
+        while( readFully( segmentHeader.clear(), position) && segmentHeader.getInt( 0) == SegmentMarker) {
+            long payloadBytes = segmentHeader.getLong( 4);
+            long payloadPosition = position + SegmentHeaderBytes;
+            if( payloadBytes < 0 || ! checksumMatches( payloadPosition, payloadBytes)) {
+                break;
+            }
+            startReading( payloadPosition);
+            if( ! replayNodes( theTree)) {
+                break;
+            }
+            lastSearchPosition = readPosition - chunk.remaining();
+            position = payloadPosition + payloadBytes + 8;
+        }
+        if( lastSearchPosition < 0) {
+            theChannel.close();
+            return false;
+        }
+
+        theChannel.truncate( position);
+        theChannel.position( position);
+        startReading( lastSearchPosition);
+        restoreSearch( theTree);
+        nodesSaved = theTree.nodes.size();
+        return true;
+    }//end load()
+
+    //-----------------------------------------------------------------------------------------
+    // Fill a buffer from the file starting at the given position.  Return false if the file ends first.
+    private boolean readFully( ByteBuffer theBuffer, long position) throws IOException
+    {
+        while( theBuffer.hasRemaining()) {
+            int bytesRead = theChannel.read( theBuffer, position);
+            if( bytesRead < 0) {
+                return false;
+            }
+            position += bytesRead;
+        }
+        return true;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Empty the chunk, to read on from the given position in the file
+    private void startReading( long position)
+    {
+        chunk.clear().flip();
+        readPosition = position;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Make sure the chunk holds at least the given number of bytes, reading more from the file if it does not.
+    // Return false if the file ends first.
+    private boolean fill( int bytes) throws IOException
+    {
+        if( chunk.remaining() >= bytes) {
+            return true;
+        }
+        chunk.compact();
+        while( chunk.position() < bytes) {
+            int bytesRead = theChannel.read( chunk, readPosition);
+            if( bytesRead < 0) {
+                chunk.flip();
+                return false;
+            }
+            readPosition += bytesRead;
+        }
+        chunk.flip();
+        return true;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Whether the payload at a position in the file is all there, and matches the CRC after it
+    private boolean checksumMatches( long payloadPosition, long payloadBytes) throws IOException
+    {
+        CRC32 checksum = new CRC32();
+        startReading( payloadPosition);
+        for( long bytesLeft = payloadBytes; bytesLeft > 0; ) {
+            if( ! fill( 1)) {
+                return false;
+            }
+            ByteBuffer part = chunk.duplicate();
+            part.limit( part.position() + (int) Math.min( bytesLeft, part.remaining()));
+            bytesLeft -= part.remaining();
+            chunk.position( part.limit());
+            checksum.update( part);
+        }
+        return fill( 8) && chunk.getLong() == checksum.getValue();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Add the new nodes in the segment being read to the tree and its index, and apply the changes to older ones,
+    // leaving the chunk positioned after them.  Return false if the nodes do not follow on from those already loaded.
+    private boolean replayNodes( SearchTree theTree) throws IOException
+    {
+        NodeArena nodes = theTree.nodes;
+        if( ! fill( 8)) {
+            return false;
+        }
+        int firstNewNode = chunk.getInt();
+        int numberOfNewNodes = chunk.getInt();
+        if( firstNewNode > nodes.size()) {
+            return false;
+        }
+        for( int node = firstNewNode; node < firstNewNode + numberOfNewNodes; node++) {
+            if( ! fill( NewNodeBytes)) {
+                return false;
+            }
+            long packedBoard = chunk.getLong();
+            int parent = chunk.getInt();
+            int cost = chunk.getInt();
+            int move = chunk.get();
+            int heuristicValue = chunk.getShort();
+            boolean isExpanded = chunk.get() != 0;
+            if( node >= nodes.size()) {
+                nodes.add( packedBoard, parent, cost, move, heuristicValue);
+                theTree.allNodes.put( packedBoard, node);
+            }
+            nodes.setExpanded( node, isExpanded);
+        }
+        if( ! fill( 4)) {
+            return false;
+        }
+        int numberOfChangedNodes = chunk.getInt();
+        for( int i = 0; i < numberOfChangedNodes; i++) {
+            if( ! fill( ChangedNodeBytes)) {
+                return false;
+            }
+            int node = chunk.getInt();
+            nodes.setParent( node, chunk.getInt());
+            nodes.setCost( node, chunk.getInt());
+            nodes.setMove( node, chunk.get());
+            nodes.setExpanded( node, chunk.get() != 0);
+        }
+        return true;
+    }//end replayNodes()
+
+    //-----------------------------------------------------------------------------------------
+    // Restore the counters, cached solution and open list from the chunk, which is positioned after the nodes of the
+    // last segment.  Its CRC has already been checked, so it is all there.
+    private void restoreSearch( SearchTree theTree) throws IOException
+    {
+        SearchStats stats = theTree.stats;
+        fill( 4 * 4 + 9 * 8 + 3 * 4);
+        theTree.currentNode = chunk.getInt();
+        theTree.closestNode = chunk.getInt();
+        theTree.sizeOfBestNextNodeQueue = chunk.getInt();
+        theTree.sizeOfAllNodes = chunk.getInt();
+        stats.nodesGenerated = chunk.getLong();
+        stats.nodesExpanded = chunk.getLong();
+        stats.duplicatesRejected = chunk.getLong();
+        stats.nodesReopened = chunk.getLong();
+        stats.peakOpenListSize = chunk.getLong();
+        stats.sampledExpansions = chunk.getLong();
+        stats.successorNanos = chunk.getLong();
+        stats.hashingNanos = chunk.getLong();
+        stats.queueNanos = chunk.getLong();
+        theTree.cachedSolutionNode = chunk.getInt();
+        theTree.cachedSolutionCost = chunk.getInt();
+        int cachedSuffixLength = chunk.getInt();
+        if( theTree.cachedSolutionNode != NodeArena.NoNode) {
+            fill( cachedSuffixLength);
+            theTree.cachedSolutionSuffix = new byte[ cachedSuffixLength];
+            chunk.get( theTree.cachedSolutionSuffix);
+        }
+        fill( 4);
+        int openListSize = chunk.getInt();
+        for( int i = 0; i < openListSize; i++) {
+            fill( 8);
+            theTree.bestNextNodeQueue.add( chunk.getInt(), chunk.getInt());
+        }
+    }//end restoreSearch()
+}//end class SearchCheckpoint
@@ -0,0 +1,250 @@
+package tiles;
+
+/**
+ * Statistics for one solve, kept by the search engine while it runs and handed back with the Solution: how many
+ * boards were generated, expanded and rejected as duplicates, how large the open list and the index of boards seen
+ * grew, the effective branching factor, and where the time went.  When a Flight Recorder recording is running, each
+ * solve also records a SolveEvent holding the same numbers.
+ *
+ * Counting is just an increment, but reading the clock around every hash lookup and queue operation would cost about
+ * as much as the operations themselves.  So the phases are timed on only one expansion in TimingSampleInterval, and
+ * the phase times reported are scaled up from those samples to all the expansions.  That keeps the overhead low
+ * enough to leave on all the time, at the cost of the phase times being estimates.  Engines that do not time the
+ * phases leave them at 0.
+ */
+public class SearchStats {
+    static final int TimingSampleInterval = 64;     // Phases are timed on one expansion in this many, a power of 2
+
+    String engine;                  // Name of the engine, as given to TilesDriver's --engine option
+    long nodesGenerated = 0;        // Boards made by a move from an expanded board
+    long nodesExpanded = 0;         // Boards whose moves were tried
+    long duplicatesRejected = 0;    // Generated boards already seen by a path no longer than the new one
+    long nodesReopened = 0;         // Generated boards already seen, but now reached by a cheaper path
+    long nodesDropped = 0;          // Boards forgotten to stay within a memory budget
+    long peakOpenListSize = 0;      // Most entries on the open list at once, or the deepest path for depth-first
+    long peakClosedSetSize = 0;     // Most boards held in the index of boards seen
+    long successorNanos = 0;        // Time making moves and estimating their heuristic values
+    long hashingNanos = 0;          // Time looking up and adding boards in the index of boards seen
+    long queueNanos = 0;            // Time adding to and removing from the open list
+    long sampledExpansions = 0;     // Expansions whose phases were timed
+    long elapsedNanos = 0;          // Time for the whole solve
+    int solutionLength = -1;        // Moves in the solution, or -1 if there was none
+
+    private long startNanos;        // Clock when the solve started
+    private SolveEvent event;       // Flight Recorder event for this solve
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, starting the clock for a solve with the named engine
+    public SearchStats( String theEngine) {
+        engine = theEngine;
+        event = new SolveEvent();
+        event.begin();
+        startNanos = System.nanoTime();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for the counts of part of a search, to be added into the stats for the whole solve, with no clock
+    SearchStats() {
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Whether to time the phases of the expansion with this number, counting from 0
+    boolean isTimedExpansion( long expansionNumber)
+    {
+        return (expansionNumber & (TimingSampleInterval - 1)) == 0;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Note the size of the open list, keeping the largest
+    void noteOpenListSize( long size)
+    {
+        if( size > peakOpenListSize) {
+            peakOpenListSize = size;
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Note the number of boards held in the index of boards seen, keeping the largest
+    void noteClosedSetSize( long size)
+    {
+        if( size > peakClosedSetSize) {
+            peakClosedSetSize = size;
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Add the counts and times of part of a search, such as one worker thread's share of it
+    void add( SearchStats part)
+    {
+        nodesGenerated += part.nodesGenerated;
+        nodesExpanded += part.nodesExpanded;
+        duplicatesRejected += part.duplicatesRejected;
+        nodesReopened += part.nodesReopened;
+        nodesDropped += part.nodesDropped;
+        peakOpenListSize += part.peakOpenListSize;
+        peakClosedSetSize += part.peakClosedSetSize;
+        successorNanos += part.successorNanos;
+        hashingNanos += part.hashingNanos;
+        queueNanos += part.queueNanos;
+        sampledExpansions += part.sampledExpansions;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Stop the clock, scale the sampled phase times up to every expansion, and attach these statistics to the
+    // solution.  Record the Flight Recorder event if a recording wants it.  Return the solution.
+    Solution finish( Solution theSolution)
+    {
+        elapsedNanos = System.nanoTime() - startNanos;
+        solutionLength = theSolution.isSolved() ? theSolution.getNumberOfMoves() : -1;
+        if( sampledExpansions > 0) {
+            successorNanos = successorNanos * nodesExpanded / sampledExpansions;
+            hashingNanos = hashingNanos * nodesExpanded / sampledExpansions;
+            queueNanos = queueNanos * nodesExpanded / sampledExpansions;
+        }
+        theSolution.setStats( this);
+
+        event.end();
+        if( event.shouldCommit()) {
+            event.fill( this, theSolution.getStartBoard());
+            event.commit();
+        }
+        event = null;
+        return theSolution;
+    }//end finish()
+
+
+    // Getters
+    //-----------------------------------------------------------------------------------------
+    public String getEngine()
+    {
+        return engine;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getNodesGenerated()
+    {
+        return nodesGenerated;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getNodesExpanded()
+    {
+        return nodesExpanded;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getDuplicatesRejected()
+    {
+        return duplicatesRejected;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getNodesReopened()
+    {
+        return nodesReopened;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getNodesDropped()
+    {
+        return nodesDropped;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getPeakOpenListSize()
+    {
+        return peakOpenListSize;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getPeakClosedSetSize()
+    {
+        return peakClosedSetSize;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getSuccessorNanos()
+    {
+        return successorNanos;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getHashingNanos()
+    {
+        return hashingNanos;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getQueueNanos()
+    {
+        return queueNanos;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getSolutionLength()
+    {
+        return solutionLength;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the effective branching factor b, the branching factor a uniform tree as deep as the solution would need
+    // to hold the boards generated: nodesGenerated = b + b^2 + ... + b^d.  Return 0 if there is no solution or it has
+    // no moves.
+    public double getEffectiveBranchingFactor()
+    {
+        if( solutionLength <= 0 || nodesGenerated == 0) {
+            return 0.0;
+        }
+        // The sum grows with b, so halve the range it must lie in until it is small enough
+        double low = 0.0;
+        double high = Math.max( nodesGenerated, 1);
+        for( int i = 0; i < 100 && high - low > 1e-9; i++) {
+            double b = (low + high) / 2;
+            double treeSize = 0.0;
+            double power = 1.0;
+            for( int depth = 1; depth <= solutionLength; depth++) {
+                power *= b;
+                treeSize += power;
+            }
+            if( treeSize < nodesGenerated) {
+                low = b;
+            }
+            else {
+                high = b;
+            }
+        }
+        return (low + high) / 2;
+    }//end getEffectiveBranchingFactor()
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        String statsText = String.format( "Engine %s: %s in %.3f ms\n" +
+                                          "   %d boards generated, %d expanded, %d duplicates rejected, %d reopened\n" +
+                                          "   Peak open list %d, peak boards seen %d, effective branching factor %.3f",
+                                          engine, (solutionLength < 0) ? "no solution" : solutionLength + " moves",
+                                          elapsedNanos / 1e6,
+                                          nodesGenerated, nodesExpanded, duplicatesRejected, nodesReopened,
+                                          peakOpenListSize, peakClosedSetSize, getEffectiveBranchingFactor());
+        if( nodesDropped > 0) {
+            statsText += String.format( "\n   %d boards dropped to stay within the memory budget", nodesDropped);
+        }
+        if( sampledExpansions > 0) {
+            statsText += String.format( "\n   Time in successors %.3f ms, hashing %.3f ms, queue %.3f ms, estimated " +
+                                        "from %d sampled expansions", successorNanos / 1e6, hashingNanos / 1e6,
+                                        queueNanos / 1e6, sampledExpansions);
+        }
+        return statsText;
+    }
+}//end class SearchStats
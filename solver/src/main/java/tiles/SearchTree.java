@@ -0,0 +1,447 @@
+package tiles;
+
+/**
+ * Implement the A* algorithm.  Each new Board configuration is added to both an open list (bestNextNodeQueue) and to an
+ * index of all boards seen (allNodes) if it does not already exist.  The open list is a priority queue, where the
+ * node with the lowest value (the most promising) f = g + w*h is chosen to be the next node to be expanded: g is the
+ * number of moves from the root, h is the estimate of moves left from a Heuristic (Manhattan distance by default), and
+ * w is the weight.  By default it is a BucketOpenList, since these are small integers, with a heap based HeapOpenList
+ * as the alternative.
+ *
+ * With a weight of 1 this is A*, and the solution found has the fewest possible moves.  A larger weight makes it
+ * weighted A*, which trusts the heuristic more and expands fewer nodes, and the solution found is never more than
+ * weight times longer than the shortest.  If a cheaper path to a board already seen is found, the board's node takes
+ * the new path and goes back on the open list.  Its older entry is skipped when it comes off (lazy deletion).
+ *
+ * Given a SolutionCache, every new board is looked up in it, and a cached board gives a complete solution through it:
+ * the path to it plus its stored moves.  The best of these is kept, and the search stops as soon as no node left on
+ * the open list has a lower f, which for A* means the kept solution is a shortest one.
+ *
+ * Nodes are stored in a NodeArena and referred to by int handle, rather than being separate objects.  All of the
+ * search state belongs to the SearchTree, so each solve uses its own SearchTree and any number can run at once.
+ * The Solution carries SearchStats for the solve, with the time spent making successors, hashing and on the open list
+ * timed on a sample of the expansions.  Given a SearchCheckpoint, the search is saved every so often while it runs,
+ * and carries on from the last save of the same search if there is one.
+ *
+ * Nodes are expanded in blocks of up to batchSize nodes with the same priority, one by default.  The children of a
+ * whole block are made and looked up together in an ExpansionBatch, and the new ones estimated with one call to the
+ * Heuristic, which cuts the calls per node and keeps each step in one tight loop.  Every node in a block has the
+ * lowest priority on the open list, so any of them could have been the next one expanded, and A* still finds a
+ * shortest solution, though it can expand more nodes on the last f value than it would one at a time.
+ */
+public class SearchTree {
+    // Priority Queue to store graph nodes
+    int rootNode;                           // Handle of the root node
+    NodeArena nodes;                        // Storage for all nodes, addressed by handle
+    OpenList bestNextNodeQueue;             // Priority Queue to give next best node, by f = g + w*h
+    BoardLayout layout;                     // Tables for the size of board being solved
+    Heuristic heuristic;                    // Estimate h of the moves left from each board
+    NodeIndex allNodes;                     // Node for each board seen, to ensure new nodes are not duplicates
+    int weightTimesScale;                   // Weight w on the heuristic, times WeightScale
+    int currentNode;                        // The node being expanded
+    int closestNode;                        // Node with the lowest heuristic value expanded, if there is no solution
+    int sizeOfBestNextNodeQueue = 0;
+    int sizeOfAllNodes = 0;
+    SolutionCache solutionCache;            // Cache of exact distances to finish early from, or null
+    int cachedSolutionNode = NodeArena.NoNode;      // Node of the cached board on the best cached solution found
+    int cachedSolutionCost = Integer.MAX_VALUE;     // Number of moves in that solution
+    byte[] cachedSolutionSuffix;                    // Moves from that board to the final board
+    SearchStats stats;                      // Counts and phase times for the solve
+    boolean timingThisExpansion;            // Whether the phases of the current expansion are being timed
+    SearchCheckpoint checkpoint;            // Saves the search every so often to be resumed later, or null
+    int batchSize = 1;                      // Most nodes with the same priority expanded together
+    int[] blockNodes = new int[ 1];         // Nodes being expanded together, the current node first
+    ExpansionBatch batch = new ExpansionBatch();    // Children of the nodes being expanded
+    long blocksExpanded = 0;                // Number of blocks expanded, for choosing the ones to time
+
+    // Priorities are kept as integers by scaling f, so weights can be given to one decimal place
+    static final int WeightScale = 10;
+    static final double OptimalWeight = 1.0;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for A*, using a bucket queue for the open list
+    public SearchTree(Board rootBoard) {
+        this( rootBoard, OptimalWeight);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for weighted A* with the given weight, which must be at least 1, using a bucket queue
+    public SearchTree(Board rootBoard, double weight) {
+        this( rootBoard, weight, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for weighted A* with the given weight and heuristic, using a bucket queue
+    public SearchTree(Board rootBoard, double weight, Heuristic theHeuristic) {
+        this( rootBoard, weight, new BucketOpenList( BucketOpenList.TieBreaking.LIFO), theHeuristic);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the weight, the open list to use, such as a HeapOpenList for heuristics without a small bound,
+    // and the heuristic
+    public SearchTree(Board rootBoard, double weight, OpenList theOpenList, Heuristic theHeuristic) {
+        if( weight < OptimalWeight) {
+            throw new IllegalArgumentException("Search weight must be at least 1, not " + weight);
+        }
+        weightTimesScale = (int) Math.round( weight * WeightScale);
+        layout = rootBoard.getLayout();
+        heuristic = theHeuristic;
+        stats = new SearchStats( "astar");
+
+        nodes = new NodeArena();
+        rootNode = nodes.add( rootBoard.getPackedValue(), NodeArena.NoNode, 0, NodeArena.NoMove,
+                              heuristic.estimate( layout, rootBoard.getPackedValue()));
+        currentNode = rootNode;     // Set the starting value for the current node
+
+        // Setup the Priority Queue to be used in retrieving the best next board to explore on each turn.  The root
+        // is the current node, so it is the first to be expanded and does not go on the queue.
+        bestNextNodeQueue = theOpenList;
+
+        // Setup the index of all boards seen, which will be used to ensure new boards are unique
+        allNodes = new NodeIndex();
+        allNodes.put( rootBoard.getPackedValue(), rootNode);
+        sizeOfAllNodes++;
+        nodes.setExpanded( rootNode, true);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the open list priority for a node with the given cost and heuristic value, which is f = g + w*h scaled up
+    // by WeightScale to keep it an integer
+    int priorityOf( int cost, int heuristicValue)
+    {
+        return cost * WeightScale + weightTimesScale * heuristicValue;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Look up boards in a cache of exact distances as they are reached, to finish as soon as one is cached
+    public void setSolutionCache( SolutionCache theSolutionCache)
+    {
+        solutionCache = theSolutionCache;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Save the search to a checkpoint file every so often, resuming from the file if it already holds this search
+    public void setCheckpoint( SearchCheckpoint theCheckpoint)
+    {
+        checkpoint = theCheckpoint;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Expand up to this many nodes with the same priority together, instead of one at a time
+    public void setBatchSize( int theBatchSize)
+    {
+        if( theBatchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1, not " + theBatchSize);
+        }
+        batchSize = theBatchSize;
+        blockNodes = new int[ batchSize];
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Run the search from the root until the final board comes off the open list, or until there are no boards left
+    // to try.  Return the moves along the path to the final board, or the closest board found if there is none.
+    public Solution solve()
+    {
+        if( checkpoint == null || ! checkpoint.resume( this)) {
+            if( ! getBoard( rootNode).isSolvable()) {
+                // The parity of the pieces shows there is no solution, without searching every board reachable
+                return finish( new Solution( getBoard( rootNode), getBoard( rootNode), 0));
+            }
+            closestNode = rootNode;
+            checkSolutionCache( rootNode);
+            if( cachedSolutionNode == rootNode) {
+                // The root's own distance is cached, and nothing can beat it
+                return finish( cachedSolution());
+            }
+        }
+        while( nodes.getBoard( currentNode) != layout.finalPackedBoard) {
+            if( checkpoint != null && checkpoint.isDue( stats.nodesExpanded)) {
+                checkpoint.take( this);
+            }
+            if( cachedSolutionNode != NodeArena.NoNode &&
+                priorityOf( nodes.getCost( currentNode), nodes.getHeuristicValue( currentNode)) >=
+                cachedSolutionCost * WeightScale) {
+                // No node left can lead to a shorter solution than the one through the cached board
+                return finish( cachedSolution());
+            }
+
+            // Store the next moves of the current node and any expanded with it, and then find the best one, timing a
+            // sample of the expansions
+            timingThisExpansion = stats.isTimedExpansion( blocksExpanded++);
+            int nodesExpanded = generateAndStoreNextMoveNodes();
+            stats.nodesExpanded += nodesExpanded;
+            if( timingThisExpansion) {
+                stats.sampledExpansions += nodesExpanded;
+            }
+            stats.noteOpenListSize( sizeOfBestNextNodeQueue);
+            if( findNextBestMove() == NodeArena.NoNode) {
+                if( cachedSolutionNode != NodeArena.NoNode) {
+                    return finish( cachedSolution());
+                }
+                // We have exhausted all moves.  The puzzle was impossible.
+                return finish( new Solution( getBoard( rootNode), getBoard( closestNode), (int) stats.nodesExpanded));
+            }
+
+            // Keep track of the best board found, to be displayed if no solution is found
+            if( nodes.getHeuristicValue( currentNode) < nodes.getHeuristicValue( closestNode)) {
+                closestNode = currentNode;
+            }
+        }
+        return finish( new Solution( getBoard( rootNode), findSolutionMoves( currentNode), (int) stats.nodesExpanded));
+    }//end solve()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Read the clock if the current expansion is being timed, and otherwise return 0 so the time adds nothing
+    long timeNow()
+    {
+        return timingThisExpansion ? System.nanoTime() : 0L;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Attach the statistics for the solve to its solution, and delete the checkpoint file now the search is over
+    Solution finish( Solution theSolution)
+    {
+        if( checkpoint != null) {
+            checkpoint.finish();
+        }
+        stats.noteClosedSetSize( sizeOfAllNodes);
+        return stats.finish( theSolution);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Look up a node's board in the solution cache, keeping the solution through it if it is the best so far
+    void checkSolutionCache( int theNode)
+    {
+        if( solutionCache == null) {
+            return;
+        }
+        long packedBoard = nodes.getBoard( theNode);
+        int entry = solutionCache.lookup( layout, packedBoard);
+        if( entry == SolutionCache.NotCached ||
+            nodes.getCost( theNode) + SolutionCache.distanceOf( entry) >= cachedSolutionCost) {
+            return;
+        }
+        byte[] suffix = solutionCache.findSuffix( layout, packedBoard);
+        if( suffix != null) {
+            cachedSolutionNode = theNode;
+            cachedSolutionCost = nodes.getCost( theNode) + suffix.length;
+            cachedSolutionSuffix = suffix;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make the solution that follows the path to the best cached board, then the moves stored for it
+    Solution cachedSolution()
+    {
+        int pathLength = nodes.getCost( cachedSolutionNode);
+        byte[] moves = findSolutionMoves( cachedSolutionNode, pathLength + cachedSolutionSuffix.length);
+        System.arraycopy( cachedSolutionSuffix, 0, moves, pathLength, cachedSolutionSuffix.length);
+        return new Solution( getBoard( rootNode), moves, (int) stats.nodesExpanded);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Take the nodes to expand together: the current node, then while there is room in the block, more nodes off the
+    // open list with the same priority.  The final board is put back, to be found by solve() as the current node.
+    // Return the number of nodes in the block.
+    int takeBlock()
+    {
+        blockNodes[ 0] = currentNode;
+        int blockSize = 1;
+        int blockPriority = priorityOf( nodes.getCost( currentNode), nodes.getHeuristicValue( currentNode));
+        while( blockSize < batchSize && sizeOfBestNextNodeQueue > 0 &&
+               bestNextNodeQueue.lowestPriority() == blockPriority) {
+            int theNode = bestNextNodeQueue.remove();
+            sizeOfBestNextNodeQueue--;
+            if( nodes.isExpanded( theNode)) {
+                continue;
+            }
+            if( nodes.getBoard( theNode) == layout.finalPackedBoard) {
+                bestNextNodeQueue.add( theNode, blockPriority);
+                sizeOfBestNextNodeQueue++;
+                break;
+            }
+            nodes.setExpanded( theNode, true);
+            if( checkpoint != null) {
+                checkpoint.noteChanged( theNode);
+            }
+            if( nodes.getHeuristicValue( theNode) < nodes.getHeuristicValue( closestNode)) {
+                closestNode = theNode;
+            }
+            blockNodes[ blockSize++] = theNode;
+        }
+        return blockSize;
+    }//end takeBlock()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Generate the boards with the next moves from the current node, and from the others taken with it by
+    // takeBlock(), storing unique ones on the list of all moves generated so far.  Return the number of nodes expanded.
+    public int generateAndStoreNextMoveNodes()
+    {
+        // When this expansion is timed, the hashing and queue times are taken out of the total, leaving the successor
+        // time.  Otherwise timeNow() is always 0, and all the times add nothing.
+        long expansionStart = timeNow();
+        int blockSize = takeBlock();
+        long queueNanos = timeNow() - expansionStart;
+
+        // Make the board for each move from each node in the block, on packed values with nothing allocated
+        batch.clear();
+        for( int i=0; i< blockSize; i++) {
+            int theNode = blockNodes[ i];
+            long packedBoard = nodes.getBoard( theNode);
+            for( int indexOfPieceToMove : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                long childBoard = layout.applyMove( packedBoard, indexOfPieceToMove);
+                batch.add( theNode, packedBoard, indexOfPieceToMove, childBoard);
+            }
+        }
+        stats.nodesGenerated += batch.size;
+
+        // Look up every new board in the allNodes index, then estimate the ones not there, all in one go
+        long hashingStart = timeNow();
+        allNodes.getAll( batch.boards, batch.existingNodes, batch.size);
+        long hashingNanos = timeNow() - hashingStart;
+        for( int i=0; i< batch.size; i++) {
+            if( batch.existingNodes[ i] == NodeArena.NoNode) {
+                batch.addNew( i, nodes.getHeuristicValue( batch.parents[ i]));
+            }
+        }
+        heuristic.estimateAfterMoves( layout, batch.newParentBoards, batch.newHeuristicValues, batch.newMoves,
+                                      batch.newSize);
+
+        // For each new board that doesn't already exist, store a new node with this board in the arena, and add it
+        // to the Priority Queue.  If it does exist but this path to it is cheaper, move its node onto this path and
+        // add it to the queue again.  Two nodes in a block can make the same board, so with more than one node new
+        // boards are looked up again in case one was just stored.
+        int newChild = 0;
+        for( int i=0; i< batch.size; i++) {
+            long newPackedBoard = batch.boards[ i];
+            int parentNode = batch.parents[ i];
+            int indexOfPieceToMove = batch.moves[ i];
+            int newCost = nodes.getCost( parentNode) + 1;
+            int existingNode = batch.existingNodes[ i];
+            int newHeuristicValue = 0;
+            if( existingNode == NodeArena.NoNode) {
+                newHeuristicValue = batch.newHeuristicValues[ newChild++];
+                if( blockSize > 1) {
+                    hashingStart = timeNow();
+                    existingNode = allNodes.get( newPackedBoard);
+                    hashingNanos += timeNow() - hashingStart;
+                }
+            }
+
+            // If this new board does *not* already exist, add it to the priorityQueue and to the List.
+            if( existingNode == NodeArena.NoNode) {
+                int theNewNode = nodes.add( newPackedBoard, parentNode, newCost, indexOfPieceToMove, newHeuristicValue);
+                hashingStart = timeNow();
+                allNodes.put( newPackedBoard, theNewNode);
+                hashingNanos += timeNow() - hashingStart;
+                sizeOfAllNodes++;
+                // Add it to the nodes on the Priority Queue
+                long queueStart = timeNow();
+                bestNextNodeQueue.add( theNewNode, priorityOf( newCost, newHeuristicValue));
+                queueNanos += timeNow() - queueStart;
+                sizeOfBestNextNodeQueue++;
+                checkSolutionCache( theNewNode);
+            }
+            else if( newCost < nodes.getCost( existingNode)) {
+                // Found a cheaper path to a board already seen.  Reparent its node and queue it again at the new
+                // priority, reopening it if it was already expanded.  The old queue entry is skipped later.
+                nodes.setParent( existingNode, parentNode);
+                nodes.setCost( existingNode, newCost);
+                nodes.setMove( existingNode, indexOfPieceToMove);
+                nodes.setExpanded( existingNode, false);
+                if( checkpoint != null) {
+                    checkpoint.noteChanged( existingNode);
+                }
+                long queueStart = timeNow();
+                bestNextNodeQueue.add( existingNode, priorityOf( newCost, nodes.getHeuristicValue( existingNode)));
+                queueNanos += timeNow() - queueStart;
+                sizeOfBestNextNodeQueue++;
+                stats.nodesReopened++;
+                checkSolutionCache( existingNode);
+            }
+            else {
+                stats.duplicatesRejected++;
+            }
+        }//end for( int...
+        stats.hashingNanos += hashingNanos;
+        stats.queueNanos += queueNanos;
+        stats.successorNanos += timeNow() - expansionStart - hashingNanos - queueNanos;
+        return blockSize;
+    }//end generateAndStoreNextMoveNodes()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the next node to expand, from the moves generated so far.
+    // Return the handle of the node with the board that is most promising, or NodeArena.NoNode if there are none left.
+    public int findNextBestMove()
+    {
+        // Remove the most promising next move from the bestNextNodeQueue, and set it as the currentNode.  Entries for
+        // nodes already expanded at their current cost were left behind when a cheaper path was found, so skip them.
+        long queueStart = timeNow();
+        currentNode = NodeArena.NoNode;
+        while( sizeOfBestNextNodeQueue > 0 && currentNode == NodeArena.NoNode) {
+            int theNode = bestNextNodeQueue.remove();
+            sizeOfBestNextNodeQueue--;
+            if( ! nodes.isExpanded( theNode)) {
+                nodes.setExpanded( theNode, true);
+                if( checkpoint != null) {
+                    checkpoint.noteChanged( theNode);
+                }
+                currentNode = theNode;
+            }
+        }
+        stats.queueNanos += timeNow() - queueStart;
+        // If currentNode is still NoNode then all moves were exhausted.  Puzzle is impossible to solve.
+        return currentNode;
+    }//end findNextBestMove()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make a Board for some node, such as for display
+    public Board getBoard( int node)
+    {
+        return new Board( layout, nodes.getBoard( node));
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Walk backwards through the parent handles from some node until reaching the root, returning the moves on
+    // the way in forwards order, one byte each.  The path cost of a node is its number of moves from the root, so the
+    // number of moves is known before starting, and they are filled in from the end with no recursion.
+    public byte[] findSolutionMoves( int endingNode)
+    {
+        return findSolutionMoves( endingNode, nodes.getCost( endingNode));
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Find the moves to some node as above, at the start of an array of the given length, leaving room for more moves
+    byte[] findSolutionMoves( int endingNode, int length)
+    {
+        byte[] solutionMoves = new byte[ length];
+        int theNode = endingNode;
+        for( int i = nodes.getCost( endingNode) - 1; i >= 0; i--) {
+            solutionMoves[ i] = (byte) nodes.getMove( theNode);
+            theNode = nodes.getParent( theNode);
+        }
+
+        assert( theNode == rootNode);
+        return solutionMoves;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString() {
+        // Display all elements on the priority queue
+        return "Queue: " + bestNextNodeQueue.toString() + "\n" + "All Nodes:" + allNodes.toString() + "\n";
+    }
+}//end class SearchTree()
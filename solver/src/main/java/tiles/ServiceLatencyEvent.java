@@ -0,0 +1,65 @@
+package tiles;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event recorded once a second while a SolveServer is running, holding the latency percentiles of
+ * every request it has answered so far, next to the SolveEvent for each solve.  Record with, for example:
+ *        java -XX:StartFlightRecording=filename=server.jfr -cp solver/target/classes tiles.SolveServer
+ *        jfr print --events tiles.ServiceLatency server.jfr
+ */
+@Name( "tiles.ServiceLatency")
+@Label( "Solve Service Latency")
+@Category( "Tiles")
+@Description( "Latency of the requests answered by a solve server")
+@Period( "1 s")
+@StackTrace( false)
+class ServiceLatencyEvent extends Event {
+    @Label( "Requests")
+    long requests;
+
+    @Label( "Batches")
+    @Description( "Batches of requests handed to the solver pool")
+    long batches;
+
+    @Label( "Mean")
+    @Timespan( Timespan.NANOSECONDS)
+    long mean;
+
+    @Label( "50th Percentile")
+    @Timespan( Timespan.NANOSECONDS)
+    long p50;
+
+    @Label( "90th Percentile")
+    @Timespan( Timespan.NANOSECONDS)
+    long p90;
+
+    @Label( "99th Percentile")
+    @Timespan( Timespan.NANOSECONDS)
+    long p99;
+
+    @Label( "Maximum")
+    @Timespan( Timespan.NANOSECONDS)
+    long maximum;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Copy the latencies and counts into the event's fields
+    void fill( LatencyHistogram latencies, long numberOfBatches)
+    {
+        requests = latencies.getCount();
+        batches = numberOfBatches;
+        mean = latencies.getMeanNanos();
+        p50 = latencies.getPercentileNanos( 50);
+        p90 = latencies.getPercentileNanos( 90);
+        p99 = latencies.getPercentileNanos( 99);
+        maximum = latencies.getMaximumNanos();
+    }
+}//end class ServiceLatencyEvent
@@ -0,0 +1,458 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * Solve the puzzle with SMA*, simplified memory-bounded A*, which never holds more than a fixed budget of nodes.
+ * It searches like A*, always expanding the leaf with the lowest f, but when the budget is full it drops the leaf
+ * with the highest f, and its parent remembers the lowest f of the children it has lost.  That backed-up f stands
+ * for the whole forgotten subtree, so the parent goes back on the open list at that f and regrows its children if
+ * the search comes back to it.  Memory stays flat at the budget however hard the board is, at the cost of searching
+ * again some boards that were dropped.
+ *
+ * The solution found has the fewest possible moves, as long as the budget holds at least one more node than the
+ * shortest solution has moves.  A path as deep as the budget can hold cannot go any deeper, so a board that cannot
+ * reach the final board by then, going by its heuristic value, is given an f of Unreachable.  If every leaf left is
+ * Unreachable the budget is too small for the board, which is an error.
+ *
+ * Like IDA* this is a tree search: boards are not looked up to find other paths to them, and only the move that
+ * undoes the last one is skipped.  Nodes are held in arrays indexed by handle, and the handles of dropped nodes are
+ * reused, so the arrays only grow until the budget is reached.  Each open node has a key holding f, depth and
+ * handle.  The open list is a heap of these keys with the best on top, and a second heap holds the keys of just the
+ * open leaves with the worst on top, so the leaf to drop is found without searching.  Both heaps are primitive arrays
+ * indexed by handle, so all the memory used grows with the nodes held and stops at the budget.
+ */
+public class SmaStarSolver implements PuzzleSolver {
+    static final int DefaultNodeBudget = 1 << 20;       // Nodes held by a solver made with no budget given
+    static final int MaximumNodeBudget = (1 << 24) - 1; // Handles must fit in the low 24 bits of an open list key
+    static final int Unreachable = (1 << 23) - 1;       // f of a path that cannot reach the final board in the budget
+
+    private int nodeBudget;         // Most nodes held at once
+    private Heuristic heuristic;    // Estimate of the moves left from each board
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the default budget and the Manhattan distance heuristic
+    public SmaStarSolver() {
+        this( DefaultNodeBudget, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the most nodes to hold at once, using the Manhattan distance heuristic
+    public SmaStarSolver( int theNodeBudget) {
+        this( theNodeBudget, new ManhattanHeuristic());
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the most nodes to hold at once and the heuristic to use
+    public SmaStarSolver( int theNodeBudget, Heuristic theHeuristic) {
+        if( theNodeBudget < 2 || theNodeBudget > MaximumNodeBudget) {
+            throw new IllegalArgumentException("Node budget must be from 2 to " + MaximumNodeBudget + ", not " +
+                                               theNodeBudget);
+        }
+        nodeBudget = theNodeBudget;
+        heuristic = theHeuristic;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        // Keep the search state in a new object for this solve, so solves on different threads stay apart
+        return new Search( startBoard).run();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class holding the state of one solve
+    private class Search
+    {
+        static final int NothingForgotten = Integer.MAX_VALUE;  // Forgotten f of a node that has lost no children
+        static final long NotOnOpenList = -1;                   // Open list key of a node not on it
+        static final int MaximumChildren = 4;                   // Children of a node, one per neighbour of the blank
+        static final int MaximumDepth = 0xFFFF;                 // Deepest node, whose depth must fit in 16 bits
+        static final int FShift = 40;                           // Position of f in an open list key
+        static final int DepthShift = 24;                       // Position of MaximumDepth - depth in a key
+        static final long HandleMask = (1L << DepthShift) - 1;
+
+        Board startBoard;
+        BoardLayout layout;
+        int depthLimit;                 // Nodes this deep can have no children, since the budget is full
+        long[] boards;                  // Packed board of each node
+        int[] parents;                  // Handle of each node's parent, or NodeArena.NoNode for the root
+        int[] costs;                    // Moves from the root to each node, which is its depth
+        byte[] moves;                   // Square whose piece moved into the blank to reach each node
+        int[] heuristicValues;          // Heuristic value of each node's board
+        int[] estimates;                // f of each node, backed up from its children once it has been expanded
+        int[] forgottenEstimates;       // Lowest f of each node's dropped children, or NothingForgotten
+        int[] children;                 // Handle of each node's child for each neighbour of its blank, or NoNode
+        long[] openListKeys;            // Key of each node on the open list, or NotOnOpenList
+        int capacity = 0;               // Length of the node arrays, which grow up to the budget
+        int numberOfNodes = 0;          // Handles ever given out, including the free ones
+        int[] freeNodes;                // Handles of dropped nodes, to be reused
+        int numberOfFreeNodes = 0;
+        int rootNode;
+        int expandingNode = NodeArena.NoNode;   // Node whose children are being made, which must not be dropped
+        KeyHeap openList = new KeyHeap( false);     // Keys of every open node, the lowest first
+        KeyHeap openLeaves = new KeyHeap( true);    // Keys of the open leaves other than the root, highest first
+        SearchStats stats = new SearchStats( "smastar");
+
+        Search( Board theStartBoard) {
+            startBoard = theStartBoard;
+            layout = startBoard.getLayout();
+            depthLimit = Math.min( nodeBudget - 1, MaximumDepth);
+            growArrays( Math.min( nodeBudget, 1 << 10));
+        }
+
+        //-------------------------------------------------------------------------------------
+        Solution run()
+        {
+            if( ! layout.isPacked()) {
+                throw new IllegalArgumentException("SMA* needs a packed board, of at most " +
+                                                   BoardLayout.MaximumPackedDimension + "x" +
+                                                   BoardLayout.MaximumPackedDimension);
+            }
+            if( ! startBoard.isSolvable()) {
+                return finish( new Solution( startBoard, startBoard, 0));
+            }
+
+            long rootPackedBoard = startBoard.getPackedValue();
+            int rootHeuristicValue = heuristic.estimate( layout, rootPackedBoard);
+            rootNode = addNode( rootPackedBoard, NodeArena.NoNode, 0, NodeArena.NoMove, rootHeuristicValue,
+                                rootHeuristicValue);
+
+            while( true) {
+                long bestKey = openList.top();
+                int theNode = (int) (bestKey & HandleMask);
+                if( (int) (bestKey >>> FShift) >= Unreachable) {
+                    throw new IllegalStateException("No solution fits in a budget of " + nodeBudget + " nodes");
+                }
+                if( boards[ theNode] == layout.finalPackedBoard) {
+                    return finish( new Solution( startBoard, findSolutionMoves( theNode), (int) stats.nodesExpanded));
+                }
+                expand( theNode);
+            }
+        }//end run()
+
+        //-------------------------------------------------------------------------------------
+        Solution finish( Solution theSolution)
+        {
+            stats.noteClosedSetSize( numberOfNodes - numberOfFreeNodes);
+            return stats.finish( theSolution);
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Make the children of a node that are not held, which is all of them the first time and the dropped ones
+        // after that.  Children made again start from the f their parent remembered for them.  Then back up the new
+        // lowest f of the children to the node and its ancestors.
+        void expand( int theNode)
+        {
+            removeFromOpenList( theNode);
+            expandingNode = theNode;
+            stats.nodesExpanded++;
+
+            long packedBoard = boards[ theNode];
+            int inheritedEstimate = (forgottenEstimates[ theNode] != NothingForgotten) ? forgottenEstimates[ theNode]
+                                                                                        : estimates[ theNode];
+            forgottenEstimates[ theNode] = NothingForgotten;
+            int parentBlank = (parents[ theNode] == NodeArena.NoNode) ? NodeArena.NoMove
+                                                                      : layout.blankIndexOf( boards[ parents[ theNode]]);
+            int[] neighbours = layout.neighbourSquares[ layout.blankIndexOf( packedBoard)];
+            for( int i = 0; i < neighbours.length; i++) {
+                int fromIndex = neighbours[ i];
+                if( fromIndex == parentBlank || children[ theNode * MaximumChildren + i] != NodeArena.NoNode) {
+                    continue;
+                }
+                long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+                int newHeuristicValue = heuristic.estimateAfterMove( layout, packedBoard, heuristicValues[ theNode],
+                                                                     fromIndex);
+                int newCost = costs[ theNode] + 1;
+                int newEstimate = Math.max( newCost + newHeuristicValue, inheritedEstimate);
+                if( newCost + newHeuristicValue > depthLimit ||
+                    (newCost == depthLimit && newPackedBoard != layout.finalPackedBoard)) {
+                    newEstimate = Unreachable;
+                }
+
+                while( numberOfNodes - numberOfFreeNodes >= nodeBudget) {
+                    dropWorstLeaf();
+                }
+                children[ theNode * MaximumChildren + i] = addNode( newPackedBoard, theNode, newCost, fromIndex,
+                                                                    newHeuristicValue, newEstimate);
+                openLeaves.remove( theNode);
+                stats.nodesGenerated++;
+            }
+            expandingNode = NodeArena.NoNode;
+            backUp( theNode);
+            stats.noteOpenListSize( openList.size());
+        }//end expand()
+
+        //-------------------------------------------------------------------------------------
+        // Drop the leaf with the highest f, the shallowest of those tied, into its parent's forgotten f.  The
+        // parent goes back on the open list at that f, to make the child again if it ever becomes the best.
+        void dropWorstLeaf()
+        {
+            int worstLeaf = openLeaves.isEmpty() ? NodeArena.NoNode : (int) (openLeaves.top() & HandleMask);
+            if( worstLeaf != NodeArena.NoNode && worstLeaf == expandingNode) {
+                // The node being expanded has lost every child made so far, and must be kept.  Take the next leaf.
+                openLeaves.remove( expandingNode);
+                worstLeaf = openLeaves.isEmpty() ? NodeArena.NoNode : (int) (openLeaves.top() & HandleMask);
+                openLeaves.add( openListKeys[ expandingNode]);
+            }
+            if( worstLeaf == NodeArena.NoNode) {
+                throw new IllegalStateException("A budget of " + nodeBudget + " nodes is too small to search with");
+            }
+
+            int forgottenEstimate = (int) (openListKeys[ worstLeaf] >>> FShift);
+            int parent = parents[ worstLeaf];
+            removeFromOpenList( worstLeaf);
+            for( int i = 0; i < MaximumChildren; i++) {
+                if( children[ parent * MaximumChildren + i] == worstLeaf) {
+                    children[ parent * MaximumChildren + i] = NodeArena.NoNode;
+                }
+            }
+            freeNodes[ numberOfFreeNodes++] = worstLeaf;
+            stats.nodesDropped++;
+
+            forgottenEstimates[ parent] = Math.min( forgottenEstimates[ parent], forgottenEstimate);
+            removeFromOpenList( parent);
+            addToOpenList( parent, forgottenEstimates[ parent]);
+            if( parent != expandingNode) {
+                backUp( parent);
+            }
+        }//end dropWorstLeaf()
+
+        //-------------------------------------------------------------------------------------
+        // Set the f of a node that has been expanded to the lowest f of its held and forgotten children, and carry
+        // any change up through its ancestors
+        void backUp( int theNode)
+        {
+            while( theNode != NodeArena.NoNode) {
+                int lowestEstimate = forgottenEstimates[ theNode];
+                for( int i = 0; i < MaximumChildren; i++) {
+                    int child = children[ theNode * MaximumChildren + i];
+                    if( child != NodeArena.NoNode && estimates[ child] < lowestEstimate) {
+                        lowestEstimate = estimates[ child];
+                    }
+                }
+                if( lowestEstimate == NothingForgotten || lowestEstimate == estimates[ theNode]) {
+                    return;
+                }
+                estimates[ theNode] = lowestEstimate;
+                theNode = parents[ theNode];
+            }
+        }//end backUp()
+
+        //-------------------------------------------------------------------------------------
+        boolean hasChildren( int theNode)
+        {
+            for( int i = 0; i < MaximumChildren; i++) {
+                if( children[ theNode * MaximumChildren + i] != NodeArena.NoNode) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Store a new leaf, reusing the handle of a dropped node if there is one, and put it on the open list
+        int addNode( long packedBoard, int parent, int cost, int move, int heuristicValue, int estimate)
+        {
+            int theNode;
+            if( numberOfFreeNodes > 0) {
+                theNode = freeNodes[ --numberOfFreeNodes];
+            }
+            else {
+                if( numberOfNodes == capacity) {
+                    growArrays( (int) Math.min( 2L * capacity, nodeBudget));
+                }
+                theNode = numberOfNodes++;
+            }
+            boards[ theNode] = packedBoard;
+            parents[ theNode] = parent;
+            costs[ theNode] = cost;
+            moves[ theNode] = (byte) move;
+            heuristicValues[ theNode] = heuristicValue;
+            estimates[ theNode] = estimate;
+            forgottenEstimates[ theNode] = NothingForgotten;
+            Arrays.fill( children, theNode * MaximumChildren, (theNode + 1) * MaximumChildren, NodeArena.NoNode);
+            openListKeys[ theNode] = NotOnOpenList;
+            addToOpenList( theNode, estimate);
+            stats.noteClosedSetSize( numberOfNodes - numberOfFreeNodes);
+            return theNode;
+        }//end addNode()
+
+        //-------------------------------------------------------------------------------------
+        // Grow the node arrays to a new length, which is at most the budget
+        void growArrays( int newCapacity)
+        {
+            boards = Arrays.copyOf( (boards == null) ? new long[ 0] : boards, newCapacity);
+            parents = Arrays.copyOf( (parents == null) ? new int[ 0] : parents, newCapacity);
+            costs = Arrays.copyOf( (costs == null) ? new int[ 0] : costs, newCapacity);
+            moves = Arrays.copyOf( (moves == null) ? new byte[ 0] : moves, newCapacity);
+            heuristicValues = Arrays.copyOf( (heuristicValues == null) ? new int[ 0] : heuristicValues, newCapacity);
+            estimates = Arrays.copyOf( (estimates == null) ? new int[ 0] : estimates, newCapacity);
+            forgottenEstimates = Arrays.copyOf( (forgottenEstimates == null) ? new int[ 0] : forgottenEstimates,
+                                                newCapacity);
+            children = Arrays.copyOf( (children == null) ? new int[ 0] : children, newCapacity * MaximumChildren);
+            openListKeys = Arrays.copyOf( (openListKeys == null) ? new long[ 0] : openListKeys, newCapacity);
+            openList.growPositions( newCapacity);
+            openLeaves.growPositions( newCapacity);
+            freeNodes = Arrays.copyOf( (freeNodes == null) ? new int[ 0] : freeNodes, newCapacity);
+            capacity = newCapacity;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Put a node on the open list, and with the open leaves if it is one.  Its key orders by f, then deepest
+        // first, then by handle.
+        void addToOpenList( int theNode, int estimate)
+        {
+            long key = ((long) Math.min( estimate, Unreachable) << FShift) |
+                       ((long) (MaximumDepth - costs[ theNode]) << DepthShift) | theNode;
+            openListKeys[ theNode] = key;
+            openList.add( key);
+            if( parents[ theNode] != NodeArena.NoNode && ! hasChildren( theNode)) {
+                openLeaves.add( key);
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        void removeFromOpenList( int theNode)
+        {
+            if( openListKeys[ theNode] != NotOnOpenList) {
+                openList.remove( theNode);
+                openLeaves.remove( theNode);
+                openListKeys[ theNode] = NotOnOpenList;
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Walk back through the parents from the final board, filling in the moves from the end
+        byte[] findSolutionMoves( int goalNode)
+        {
+            byte[] solutionMoves = new byte[ costs[ goalNode]];
+            int theNode = goalNode;
+            for( int i = solutionMoves.length - 1; i >= 0; i--) {
+                solutionMoves[ i] = moves[ theNode];
+                theNode = parents[ theNode];
+            }
+            return solutionMoves;
+        }
+    }//end class Search
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class for a binary heap of open list keys, with the lowest key on top, or the highest for a heap
+    // made with highestFirst.  The position of each node's key is kept by handle, so any node can be removed.  Keys
+    // are stored XORed with a mask of all ones when the highest is first, which reverses their order, so both kinds
+    // of heap sift the same way.
+    private static class KeyHeap
+    {
+        static final int NotInHeap = -1;
+
+        long order;                         // 0, or all ones to put the highest key first
+        long[] heap = new long[ 16];        // Stored keys, with the smallest at index 0
+        int size = 0;
+        int[] positions = new int[ 0];      // Index in heap of each node's key, or NotInHeap
+
+        KeyHeap( boolean highestFirst) {
+            order = highestFirst ? -1L : 0L;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Make room for the keys of nodes with handles below a new capacity
+        void growPositions( int capacity)
+        {
+            int oldCapacity = positions.length;
+            positions = Arrays.copyOf( positions, capacity);
+            Arrays.fill( positions, oldCapacity, capacity, NotInHeap);
+        }
+
+        //-------------------------------------------------------------------------------------
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+        //-------------------------------------------------------------------------------------
+        int size()
+        {
+            return size;
+        }
+
+        //-------------------------------------------------------------------------------------
+        // The lowest key, or the highest if highest first
+        long top()
+        {
+            return heap[ 0] ^ order;
+        }
+
+        //-------------------------------------------------------------------------------------
+        void add( long key)
+        {
+            if( size == heap.length) {
+                heap = Arrays.copyOf( heap, 2 * size);
+            }
+            siftUp( size++, key ^ order);
+        }
+
+        //-------------------------------------------------------------------------------------
+        // Remove a node's key, if it is in the heap
+        void remove( int node)
+        {
+            int i = positions[ node];
+            if( i == NotInHeap) {
+                return;
+            }
+            positions[ node] = NotInHeap;
+            long last = heap[ --size];
+            if( i < size) {
+                // Put the last key in the hole, and move it whichever way it belongs
+                if( i > 0 && last < heap[ (i - 1) >>> 1]) {
+                    siftUp( i, last);
+                }
+                else {
+                    siftDown( i, last);
+                }
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        private void siftUp( int i, long stored)
+        {
+            while( i > 0) {
+                int parent = (i - 1) >>> 1;
+                if( heap[ parent] <= stored) {
+                    break;
+                }
+                place( i, heap[ parent]);
+                i = parent;
+            }
+            place( i, stored);
+        }
+
+        //-------------------------------------------------------------------------------------
+        private void siftDown( int i, long stored)
+        {
+            int half = size >>> 1;
+            while( i < half) {
+                int child = 2 * i + 1;
+                if( child + 1 < size && heap[ child + 1] < heap[ child]) {
+                    child++;
+                }
+                if( stored <= heap[ child]) {
+                    break;
+                }
+                place( i, heap[ child]);
+                i = child;
+            }
+            place( i, stored);
+        }
+
+        //-------------------------------------------------------------------------------------
+        private void place( int i, long stored)
+        {
+            heap[ i] = stored;
+            positions[ (int) ((stored ^ order) & Search.HandleMask)] = i;
+        }
+    }//end class KeyHeap
+}//end class SmaStarSolver
@@ -0,0 +1,202 @@
+package tiles;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Result of solving the puzzle from some starting board: the list of moves to the final board, given as the
+ * index of the square whose piece moves into the blank on each move, or no moves at all if no solution was found.
+ * If there is no solution, the closest board found is kept so it can be displayed instead.
+ *
+ * The moves are kept one byte each, since no board has more than 25 squares.  Nothing else is made up front: the
+ * moves and the pieces moved can be streamed out lazily, and the boards along the way are only made for a caller
+ * that renders them, one Board changed in place from step to step.
+ */
+public class Solution {
+    private Board startBoard;       // Board the solution starts from
+    private byte[] moves;           // Square moved into the blank on each move, or null if there is no solution
+    private Board closestBoard;     // Board found with the lowest heuristic value
+    private int nodesExpanded;      // Number of boards whose moves were tried by the search
+    private SearchStats stats;      // Statistics of the search that found this, or null if none were kept
+    private double suboptimalityBound = 1.0;    // Most times longer this can be than the shortest solution
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for a solution that was found
+    public Solution( Board theStartBoard, byte[] theMoves, int theNodesExpanded) {
+        startBoard = new Board( theStartBoard);
+        moves = theMoves;
+        nodesExpanded = theNodesExpanded;
+        closestBoard = getFinalBoard();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor for when there is no solution, keeping the closest board found instead
+    public Solution( Board theStartBoard, Board theClosestBoard, int theNodesExpanded) {
+        startBoard = new Board( theStartBoard);
+        moves = null;
+        closestBoard = theClosestBoard;
+        nodesExpanded = theNodesExpanded;
+    }
+
+
+    // Getters
+    //-----------------------------------------------------------------------------------------
+    public boolean isSolved()
+    {
+        return moves != null;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getNumberOfMoves()
+    {
+        return moves.length;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get the square whose piece moves into the blank on one move, counting from 0
+    public int getMove( int moveNumber)
+    {
+        return moves[ moveNumber];
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get a copy of all the moves.  getMove() and moveStream() give them without making a copy.
+    public int[] getMoves()
+    {
+        return moveStream().toArray();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public Board getStartBoard()
+    {
+        return startBoard;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public Board getClosestBoard()
+    {
+        return closestBoard;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getNodesExpanded()
+    {
+        return nodesExpanded;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // The solution has at most this many times as many moves as the shortest one.  It is 1 for a shortest solution.
+    public double getSuboptimalityBound()
+    {
+        return suboptimalityBound;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    void setSuboptimalityBound( double bound)
+    {
+        suboptimalityBound = bound;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public SearchStats getStats()
+    {
+        return stats;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    void setStats( SearchStats theStats)
+    {
+        stats = theStats;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make the moves on a copy of the start board to find the board at the end of the solution
+    public Board getFinalBoard()
+    {
+        Board theBoard = new Board( startBoard);
+        for( byte move : moves) {
+            theBoard.movePieceAt( move);
+        }
+        return theBoard;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Stream the square moved into the blank on each move, read from the moves as the stream is used
+    public IntStream moveStream()
+    {
+        return IntStream.range( 0, moves.length).map( i -> moves[ i]);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Stream the piece moved on each move, which is how moves are entered in interactive play.  The pieces are found
+    // by making the moves one at a time as the stream is used.
+    public IntStream movedPieceStream()
+    {
+        PrimitiveIterator.OfInt pieces = new PrimitiveIterator.OfInt() {
+            private Board theBoard = new Board( startBoard);
+            private int nextMove = 0;
+
+            public boolean hasNext()
+            {
+                return nextMove < moves.length;
+            }
+
+            public int nextInt()
+            {
+                if( ! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int piece = theBoard.getPieceAt( moves[ nextMove]);
+                theBoard.movePieceAt( moves[ nextMove++]);
+                return piece;
+            }
+        };
+        return StreamSupport.intStream( Spliterators.spliterator( pieces, moves.length, Spliterator.ORDERED), false);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Find the piece moved on each move of the solution
+    public int[] getMovedPieces()
+    {
+        return movedPieceStream().toArray();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Give each board along the solution path to a renderer, numbered from 1 for the start board to the final board.
+    // The same Board is moved along the path and passed each time, so the renderer must copy it to keep it.
+    public void forEachBoard( ObjIntConsumer< Board> renderer)
+    {
+        Board theBoard = new Board( startBoard);
+        renderer.accept( theBoard, 1);
+        for( int i = 0; i < moves.length; i++) {
+            theBoard.movePieceAt( moves[ i]);
+            renderer.accept( theBoard, i + 2);
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Display the numbered boards along the solution path, from the start board to the final board
+    public void displaySolutionPath() {
+        forEachBoard( (theBoard, step) -> System.out.println( step + ". \n" + theBoard));
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString() {
+        if( moves == null) {
+            return "No solution after expanding " + nodesExpanded + " nodes";
+        }
+        return moves.length + " moves, after expanding " + nodesExpanded + " nodes";
+    }
+}//end class Solution
@@ -0,0 +1,223 @@
+package tiles;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of exact distances, shared by every solve.  Each board on a shortest solution is stored with its
+ * number of moves to the final board and the move to take next, so a later solve that reaches any of those boards
+ * can finish by following the stored moves instead of searching on.  The key is the packed board, which is
+ * different for every board of every size that packs.
+ *
+ * A board and its reflection across the main diagonal take the same moves, reflected, so they share one entry,
+ * kept under BoardLayout.canonical() of the board.  The next move is stored for that board, and reflected back
+ * when the entry is found from the other one.  The same slots then hold nearly twice as many boards, and a solve
+ * can finish on the reflection of a board an earlier solve went through.
+ *
+ * The cache is a fixed-size table of slots, like a chess engine's transposition table.  A board has one slot,
+ * chosen by a hash of its packed value, and storing a board replaces whatever was in its slot, so the table never
+ * grows.  Each slot is two longs: the data, and the key XOR the data.  A slot being written by one thread while
+ * another reads it gives a key that does not match, which reads as a miss, so no locks are needed.
+ *
+ * Only shortest solutions may be recorded.  A distance on any path then has to be the board's exact distance, so
+ * entries written by different solves always agree, and following the next moves always leads to the final board.
+ */
+public class SolutionCache {
+    static final int NotCached = -1;                // Returned by lookup() for a board with no entry
+    static final int DefaultCapacity = 1 << 20;     // Entries in a cache made with no capacity given
+    static final int MaximumCapacity = 1 << 29;     // Most entries, whose two longs each fill the largest array
+    private static final long ValidEntry = 1L << 32;    // Set in the data of every slot in use
+
+    private final AtomicLongArray slots;            // Key XOR data, then data, for each slot
+    private final int slotMask;                     // Number of slots less 1, which is a power of 2 less 1
+    private final int hashShift;                    // Shift keeping the top bits of a hash, one for each bit of a slot
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder replacements = new LongAdder();    // Stores that pushed out a different board
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the default capacity
+    public SolutionCache() {
+        this( DefaultCapacity);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the largest number of boards to hold, from 1 to MaximumCapacity, rounded up to a power of 2
+    public SolutionCache( int capacity) {
+        if( capacity < 1 || capacity > MaximumCapacity) {
+            throw new IllegalArgumentException("Cache capacity must be from 1 to " + MaximumCapacity + ", not " +
+                                               capacity);
+        }
+        int numberOfSlots = Integer.highestOneBit( Math.max( capacity - 1, 1)) << 1;
+        slots = new AtomicLongArray( 2 * numberOfSlots);
+        slotMask = numberOfSlots - 1;
+        hashShift = 64 - Integer.numberOfTrailingZeros( numberOfSlots);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Find the slot a board goes in, from the top bits of a multiplicative hash, so every slot can be used
+    private int slotOf( long packedBoard)
+    {
+        return (int) ((packedBoard * 0x9E3779B97F4A7C15L) >>> hashShift);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Get a board's entry, holding its distance and next move, or NotCached, counting it as a hit or a miss
+    public int lookup( BoardLayout layout, long packedBoard)
+    {
+        int entry = find( layout, packedBoard);
+        if( entry == NotCached) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get a board's entry without counting it, with the next move for the board itself even if the entry was
+    // stored for its reflection
+    private int find( BoardLayout layout, long packedBoard)
+    {
+        long key = layout.canonical( packedBoard);
+        int slot = slotOf( key);
+        long data = slots.getOpaque( 2 * slot + 1);
+        long checkedKey = slots.getOpaque( 2 * slot) ^ data;
+        if( (data & ValidEntry) == 0 || checkedKey != key) {
+            return NotCached;
+        }
+        int entry = (int) data;
+        if( key != packedBoard) {
+            entry = (entry & ~0xFF) | layout.transposedSquare[ moveOf( entry)];
+        }
+        return entry;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get the number of moves to the final board from an entry
+    static int distanceOf( int entry)
+    {
+        return entry >>> 8;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Get the square whose piece moves into the blank next from an entry
+    static int moveOf( int entry)
+    {
+        return entry & 0xFF;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Store a board's exact distance and the next move on a shortest path, replacing whatever is in its slot
+    public void store( BoardLayout layout, long packedBoard, int distance, int move)
+    {
+        long key = layout.canonical( packedBoard);
+        if( key != packedBoard) {
+            move = layout.transposedSquare[ move];
+        }
+        int slot = slotOf( key);
+        long oldData = slots.getOpaque( 2 * slot + 1);
+        if( (oldData & ValidEntry) != 0 && (slots.getOpaque( 2 * slot) ^ oldData) != key) {
+            replacements.increment();
+        }
+        long data = ValidEntry | ((long) distance << 8) | move;
+        slots.setOpaque( 2 * slot + 1, data);
+        slots.setOpaque( 2 * slot, key ^ data);
+        stores.increment();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Record every board on a shortest solution, with its distance and next move.  Boards too large to pack are not
+    // cached.
+    public void record( Solution theSolution)
+    {
+        BoardLayout layout = theSolution.getStartBoard().getLayout();
+        if( ! layout.isPacked()) {
+            return;
+        }
+        long packedBoard = theSolution.getStartBoard().getPackedValue();
+        int numberOfMoves = theSolution.getNumberOfMoves();
+        for( int i = 0; i < numberOfMoves; i++) {
+            int move = theSolution.getMove( i);
+            store( layout, packedBoard, numberOfMoves - i, move);
+            packedBoard = layout.applyMove( packedBoard, move);
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Follow the stored next moves from a board to the final board, returning the moves, or null if the board is
+    // not cached or an entry on the way has been replaced.  Lookups here are not counted, as the caller has usually
+    // just looked the board up.
+    public byte[] findSuffix( BoardLayout layout, long packedBoard)
+    {
+        if( packedBoard == layout.finalPackedBoard) {
+            return new byte[ 0];
+        }
+        int entry = find( layout, packedBoard);
+        if( entry == NotCached) {
+            return null;
+        }
+
+        // Each board on the way must be one move closer than the last
+        byte[] moves = new byte[ distanceOf( entry)];
+        for( int i = 0; i < moves.length; i++) {
+            if( entry == NotCached || distanceOf( entry) != moves.length - i) {
+                return null;
+            }
+            moves[ i] = (byte) moveOf( entry);
+            packedBoard = layout.applyMove( packedBoard, moves[ i]);
+            if( i + 1 < moves.length) {
+                entry = find( layout, packedBoard);
+            }
+        }
+        return (packedBoard == layout.finalPackedBoard) ? moves : null;
+    }//end findSuffix()
+
+
+    // Getters for the counters
+    //-----------------------------------------------------------------------------------------
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getStores()
+    {
+        return stores.sum();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public long getReplacements()
+    {
+        return replacements.sum();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public int getCapacity()
+    {
+        return slotMask + 1;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public String toString()
+    {
+        return "Solution cache of " + getCapacity() + " boards: " + getHits() + " hits, " + getMisses() + " misses, " +
+               getStores() + " stores, " + getReplacements() + " replaced";
+    }
+}//end class SolutionCache
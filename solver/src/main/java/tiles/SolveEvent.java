@@ -0,0 +1,91 @@
+package tiles;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one solve, holding its SearchStats.  The event's duration is the time for the whole
+ * solve.  It is enabled by default, and costs nothing beyond one check at the end of each solve unless a recording
+ * is running.  Record with, for example:
+ *        java -XX:StartFlightRecording=filename=solves.jfr -cp solver/target/classes tiles.BatchSolver boards.txt
+ *        jfr print --events tiles.Solve solves.jfr
+ */
+@Name( "tiles.Solve")
+@Label( "Puzzle Solve")
+@Category( "Tiles")
+@Description( "A solve of one sliding tile puzzle board")
+@StackTrace( false)
+class SolveEvent extends Event {
+    @Label( "Engine")
+    String engine;
+
+    @Label( "Start Board")
+    String startBoard;
+
+    @Label( "Solution Length")
+    @Description( "Moves in the solution, or -1 if there was none")
+    int solutionLength;
+
+    @Label( "Nodes Generated")
+    long nodesGenerated;
+
+    @Label( "Nodes Expanded")
+    long nodesExpanded;
+
+    @Label( "Duplicates Rejected")
+    long duplicatesRejected;
+
+    @Label( "Nodes Reopened")
+    long nodesReopened;
+
+    @Label( "Nodes Dropped")
+    @Description( "Boards forgotten to stay within a memory budget")
+    long nodesDropped;
+
+    @Label( "Peak Open List Size")
+    long peakOpenListSize;
+
+    @Label( "Peak Closed Set Size")
+    long peakClosedSetSize;
+
+    @Label( "Effective Branching Factor")
+    double effectiveBranchingFactor;
+
+    @Label( "Successor Time")
+    @Timespan( Timespan.NANOSECONDS)
+    long successorTime;
+
+    @Label( "Hashing Time")
+    @Timespan( Timespan.NANOSECONDS)
+    long hashingTime;
+
+    @Label( "Queue Time")
+    @Timespan( Timespan.NANOSECONDS)
+    long queueTime;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Copy the statistics into the event's fields
+    void fill( SearchStats theStats, Board theStartBoard)
+    {
+        engine = theStats.engine;
+        startBoard = theStartBoard.toPieceString();
+        solutionLength = theStats.solutionLength;
+        nodesGenerated = theStats.nodesGenerated;
+        nodesExpanded = theStats.nodesExpanded;
+        duplicatesRejected = theStats.duplicatesRejected;
+        nodesReopened = theStats.nodesReopened;
+        nodesDropped = theStats.nodesDropped;
+        peakOpenListSize = theStats.peakOpenListSize;
+        peakClosedSetSize = theStats.peakClosedSetSize;
+        effectiveBranchingFactor = theStats.getEffectiveBranchingFactor();
+        successorTime = theStats.successorNanos;
+        hashingTime = theStats.hashingNanos;
+        queueTime = theStats.queueNanos;
+    }
+}//end class SolveEvent
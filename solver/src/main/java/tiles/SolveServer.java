@@ -0,0 +1,434 @@
+package tiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Solve boards sent over TCP connections to localhost, so that one long-running JVM, with its solution cache and
+ * compiled code kept warm, can serve any number of clients.  Each line a client sends is a board, in the same form
+ * BatchSolver reads, and each is answered with the same result line: the board, the number of moves and the pieces
+ * to move, or "impossible" or "timeout".  A client may send many boards without waiting, and the answers come back
+ * in the order they were sent.  The line "stats" is answered with the latency percentiles and counts so far, and
+ * "quit" closes the connection.
+ *
+ * Each connection is handled on its own virtual thread where the JVM has them, and a platform thread otherwise,
+ * since connections spend nearly all their time waiting.  The solving is done on a fixed pool of worker threads
+ * sharing one solver and cache.  Requests from every connection go on one queue, and are taken off it in batches:
+ * a batch is whatever arrived while the workers were all busy, so batches stay small when the server is idle and
+ * grow under a burst, without ever waiting to fill one.  A board sent more than once in a batch is solved once.
+ *
+ * The latency of each request, from arriving to being solved, is counted in a LatencyHistogram.  The percentiles
+ * are reported by the "stats" line, written to standard error when the server stops, and recorded once a second as
+ * a ServiceLatencyEvent when a Flight Recorder recording is running, next to the SolveEvent for each solve.
+ *
+ * Usage: java tiles.SolveServer [--port=p] [--workers=n] [--engine=e] [--weight=w] [--heuristic=h] [--cache=n] ...
+ * The solver options are the same as for TilesDriver, except that a cache of DefaultCacheBoards is used unless
+ * --cache is given, and --checkpoint cannot be used, since the solves running at once would all save to one file.
+ * The port defaults to DefaultPort, and the number of workers to the number of processors.
+ */
+public class SolveServer implements Closeable {
+    static final int DefaultPort = 4848;                // Port listened on when none is given
+    static final int DefaultCacheBoards = 1 << 20;      // Boards kept in the solution cache when no size is given
+    static final int MaximumBatchSize = 256;            // Most requests taken off the queue at once
+    static final int TasksPerWorker = 2;                // Boards handed to the pool for each worker before waiting
+    static final int PipelinedRequests = 64;            // Most answers a connection can be waiting to write
+    static final long WriterCheckMillis = 100;          // Time between checks that a connection's writer is running
+
+    private PuzzleSolver theSolver;                     // Solver shared by all the workers
+    private SolutionCache solutionCache;                // Cache the solver uses, or null, for the stats
+    private ServerSocket serverSocket;
+    private ExecutorService connectionThreads;          // One thread for each connection, virtual if possible
+    private ExecutorService workers;                    // Threads solving boards
+    private Semaphore freeTasks;                        // Boards the pool can take before the batcher must wait
+    private Thread batcher;                             // Thread taking batches off the request queue
+    private BlockingQueue< Request> requests = new LinkedBlockingQueue<>();
+    private LatencyHistogram latencies = new LatencyHistogram();
+    private AtomicLong numberOfBatches = new AtomicLong();
+    private AtomicLong repeatedBoards = new AtomicLong();   // Boards answered by a solve of the same board in a batch
+    private Runnable latencyEventHook = this::recordLatencyEvent;
+    private volatile boolean running = true;
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class for a board waiting to be solved, and the answer to send back
+    private static class Request
+    {
+        String boardValues;
+        long arrivalNanos = System.nanoTime();
+        CompletableFuture< String> result = new CompletableFuture<>();
+
+        Request( String theBoardValues) {
+            boardValues = theBoardValues;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Private inner class for the solve of one board, answering every request for it.  If the solve fails, even
+    // with an Error, or the task never runs because the server closed, the requests are failed instead, so nothing
+    // waits for them forever.
+    private class SolveTask implements Runnable
+    {
+        String boardValues;
+        List< Request> boardRequests;      // Requests for the board in one batch
+
+        SolveTask( String theBoardValues, List< Request> theBoardRequests) {
+            boardValues = theBoardValues;
+            boardRequests = theBoardRequests;
+        }
+
+        //-------------------------------------------------------------------------------------
+        public void run()
+        {
+            try {
+                String resultLine = BatchSolver.resultLine( boardValues, theSolver);
+                for( Request theRequest : boardRequests) {
+                    latencies.record( System.nanoTime() - theRequest.arrivalNanos);
+                    theRequest.result.complete( resultLine);
+                }
+            }
+            catch( Throwable e) {
+                fail( e);
+                throw e;
+            }
+            finally {
+                freeTasks.release();
+            }
+        }
+
+        //-------------------------------------------------------------------------------------
+        void fail( Throwable cause)
+        {
+            for( Request theRequest : boardRequests) {
+                theRequest.result.completeExceptionally( cause);
+            }
+        }
+    }//end class SolveTask
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, listening on the given port of localhost, or on any free port if it is 0
+    public SolveServer( PuzzleSolver aSolver, SolutionCache theSolutionCache, int port, int numberOfWorkers)
+            throws IOException
+    {
+        theSolver = aSolver;
+        solutionCache = theSolutionCache;
+        serverSocket = new ServerSocket( port, 0, InetAddress.getLoopbackAddress());
+        connectionThreads = newConnectionExecutor();
+        workers = Executors.newFixedThreadPool( numberOfWorkers);
+        freeTasks = new Semaphore( numberOfWorkers * TasksPerWorker);
+        batcher = new Thread( this::batchRequests, "SolveServer batcher");
+        batcher.setDaemon( true);
+        batcher.start();
+        FlightRecorder.addPeriodicEvent( ServiceLatencyEvent.class, latencyEventHook);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) throws IOException {
+        // Reuse the driver's option handling for the solver, with a cache unless one is given
+        TilesDriver theDriver = new TilesDriver();
+        theDriver.solutionCache = new SolutionCache( DefaultCacheBoards);
+        int port = DefaultPort;
+        int numberOfWorkers = Runtime.getRuntime().availableProcessors();
+        for( String option : args) {
+            if( option.startsWith("--port=")) {
+                port = Integer.parseInt( option.substring( "--port=".length()));
+            }
+            else if( option.startsWith("--workers=")) {
+                numberOfWorkers = Integer.parseInt( option.substring( "--workers=".length()));
+            }
+            else {
+                theDriver.readOptions( new String[] { option});
+            }
+        }
+        if( theDriver.checkpointFile != null) {
+            throw new IllegalArgumentException("--checkpoint saves a single solve, and cannot be used by the server");
+        }
+
+        SolveServer theServer = new SolveServer( theDriver.createSolver(), theDriver.solutionCache, port,
+                                                 numberOfWorkers);
+        Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+            theServer.close();
+            System.err.println( theServer.getStatsLine());
+        }));
+        System.err.println("Solving boards on " + theServer.serverSocket.getLocalSocketAddress());
+        theServer.run();
+    }//end main()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make the executor for connections: one virtual thread each on a JVM that has them, looked up by reflection so
+    // the server still builds and runs on Java 17, where a new platform thread is used for each instead
+    static ExecutorService newConnectionExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor").invoke( null);
+        }
+        catch( ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Accept connections until the server is closed
+    public void run()
+    {
+        while( running) {
+            try {
+                Socket theSocket = serverSocket.accept();
+                connectionThreads.execute( () -> serve( theSocket));
+            }
+            catch( IOException e) {
+                if( running) {
+                    System.err.println("Failed to accept a connection: " + e);
+                }
+            }
+        }
+    }//end run()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Read requests from one connection until it ends, queueing each one's answer to be written in order by a
+    // second thread, so a client can send many boards before reading any answers
+    private void serve( Socket theSocket)
+    {
+        try( Socket socket = theSocket;
+             BufferedReader input = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                               StandardCharsets.UTF_8));
+             BufferedWriter output = new BufferedWriter( new OutputStreamWriter( socket.getOutputStream(),
+                                                                                 StandardCharsets.UTF_8))) {
+            BlockingQueue< CompletableFuture< String>> answers = new ArrayBlockingQueue<>( PipelinedRequests);
+            CompletableFuture< String> endOfAnswers = new CompletableFuture<>();
+            CompletableFuture< Void> writer = CompletableFuture.runAsync( () -> writeAnswers( answers, endOfAnswers,
+                                                                                              output, socket),
+                                                                          connectionThreads);
+            CompletableFuture< String> lastAnswer = CompletableFuture.completedFuture( "");
+            String line;
+            while( (line = input.readLine()) != null) {
+                line = line.trim();
+                if( line.isEmpty()) {
+                    continue;
+                }
+                if( line.equals("quit")) {
+                    break;
+                }
+                // The stats are taken once every board sent before them has been answered
+                lastAnswer = line.equals("stats") ? lastAnswer.thenApply( previous -> "stats " + getStatsLine())
+                                                  : submit( line);
+                queueAnswer( answers, lastAnswer, writer);
+            }
+            queueAnswer( answers, endOfAnswers, writer);
+            writer.join();
+        }
+        catch( SocketException e) {
+            // The client went away, or the writer closed the socket after failing to write to it
+        }
+        catch( IOException | InterruptedException e) {
+            System.err.println("Connection failed: " + e);
+        }
+    }//end serve()
+
+    //-----------------------------------------------------------------------------------------
+    // Queue an answer for the writer, waiting while the queue is full.  Throw SocketException if the writer has
+    // stopped, as it then closes the socket and will never take anything more off the queue.
+    private static void queueAnswer( BlockingQueue< CompletableFuture< String>> answers,
+                                     CompletableFuture< String> answer, CompletableFuture< Void> writer)
+            throws SocketException, InterruptedException
+    {
+        while( ! answers.offer( answer, WriterCheckMillis, TimeUnit.MILLISECONDS)) {
+            if( writer.isDone()) {
+                throw new SocketException( "The answers can no longer be written");
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Write each answer as it is finished, in the order the requests arrived, flushing whenever none are waiting
+    private static void writeAnswers( BlockingQueue< CompletableFuture< String>> answers,
+                                      CompletableFuture< String> endOfAnswers, BufferedWriter output, Socket socket)
+    {
+        try {
+            CompletableFuture< String> answer;
+            while( (answer = answers.take()) != endOfAnswers) {
+                output.write( answer.get());
+                output.newLine();
+                if( answers.isEmpty()) {
+                    output.flush();
+                }
+            }
+            output.flush();
+        }
+        catch( IOException | InterruptedException | ExecutionException | RuntimeException e) {
+            // A solve failed or the client went away.  Send the answers written so far, then stop the reader too, as
+            // nothing more can be answered.
+            try {
+                output.flush();
+            }
+            catch( IOException flushFailure) {
+                // The client went away
+            }
+            try {
+                socket.close();
+            }
+            catch( IOException closeFailure) {
+                // Already closed
+            }
+        }
+    }//end writeAnswers()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Queue a board to be solved, returning its answer to come, which fails if the server is closed first
+    CompletableFuture< String> submit( String boardValues)
+    {
+        Request theRequest = new Request( boardValues);
+        requests.add( theRequest);
+        if( ! running) {
+            failQueuedRequests();
+        }
+        return theRequest.result;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Fail every request still on the queue, once the server is closed and nothing will take them off it
+    private void failQueuedRequests()
+    {
+        Request theRequest;
+        while( (theRequest = requests.poll()) != null) {
+            theRequest.result.completeExceptionally( new IllegalStateException( "The server is closed"));
+        }
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Take batches of requests off the queue and hand them to the workers, until the server is closed.  Waiting for
+    // the workers to have room is what lets requests pile up into a larger batch under load.
+    private void batchRequests()
+    {
+        List< Request> batch = new ArrayList<>();
+        try {
+            while( running) {
+                batch.clear();
+                batch.add( requests.take());
+                requests.drainTo( batch, MaximumBatchSize - 1);
+                numberOfBatches.incrementAndGet();
+                solveBatch( batch);
+            }
+        }
+        catch( InterruptedException e) {
+            // The server is closing
+        }
+    }//end batchRequests()
+
+    //-----------------------------------------------------------------------------------------
+    // Hand each different board in a batch to the workers, answering every request for it from the one solve.  If the
+    // server closes part way, the boards not handed over are failed.
+    private void solveBatch( List< Request> batch) throws InterruptedException
+    {
+        Map< String, List< Request>> requestsByBoard = new LinkedHashMap<>();
+        for( Request theRequest : batch) {
+            requestsByBoard.computeIfAbsent( theRequest.boardValues, boardValues -> new ArrayList<>()).add( theRequest);
+        }
+        repeatedBoards.addAndGet( batch.size() - requestsByBoard.size());
+
+        List< SolveTask> tasks = new ArrayList<>();
+        for( Map.Entry< String, List< Request>> entry : requestsByBoard.entrySet()) {
+            tasks.add( new SolveTask( entry.getKey(), entry.getValue()));
+        }
+        for( int i=0; i< tasks.size(); i++) {
+            try {
+                freeTasks.acquire();
+                workers.execute( tasks.get( i));
+            }
+            catch( InterruptedException | RejectedExecutionException e) {
+                for( SolveTask notHandedOver : tasks.subList( i, tasks.size())) {
+                    notHandedOver.fail( new IllegalStateException( "The server is closed"));
+                }
+                throw new InterruptedException( "The server is closed");
+            }
+        }
+    }//end solveBatch()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Stop accepting connections and solving boards
+    public void close()
+    {
+        if( ! running) {
+            return;
+        }
+        running = false;
+        FlightRecorder.removePeriodicEvent( latencyEventHook);
+        try {
+            serverSocket.close();
+        }
+        catch( IOException e) {
+            // Closing anyway
+        }
+        batcher.interrupt();
+        connectionThreads.shutdownNow();
+        for( Runnable notRun : workers.shutdownNow()) {
+            ((SolveTask) notRun).fail( new IllegalStateException( "The server is closed"));
+        }
+        failQueuedRequests();
+    }//end close()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Record the latencies so far for a Flight Recorder recording
+    private void recordLatencyEvent()
+    {
+        ServiceLatencyEvent theEvent = new ServiceLatencyEvent();
+        theEvent.fill( latencies, numberOfBatches.get());
+        theEvent.commit();
+    }
+
+
+    // Getters
+    //-----------------------------------------------------------------------------------------
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public LatencyHistogram getLatencies()
+    {
+        return latencies;
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // The latencies and counts so far, on one line
+    public String getStatsLine()
+    {
+        String statsLine = latencies + ", " + numberOfBatches.get() + " batches, " + repeatedBoards.get() +
+                           " repeated boards";
+        return (solutionCache == null) ? statsLine : statsLine + ", " + solutionCache;
+    }
+}//end class SolveServer
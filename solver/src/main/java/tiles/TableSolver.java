@@ -0,0 +1,59 @@
+package tiles;
+
+/**
+ * Solve a 3x3 puzzle with no search at all, by looking up the exact distance of each board in a DistanceTable.
+ * From any board, one of the moves always leads to a board one move closer, so following those moves reaches the
+ * final board along a shortest path, with a few lookups per move.  An impossible board is known from its first
+ * lookup.
+ */
+public class TableSolver implements PuzzleSolver {
+    private DistanceTable theTable;     // Table of exact distances, or null to use DistanceTable.getDefault()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor, using the default table file, which is mapped the first time a board is solved
+    public TableSolver() {
+        this( null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Constructor with the table to use
+    public TableSolver( DistanceTable aTable) {
+        theTable = aTable;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Solution solve( Board startBoard)
+    {
+        if( startBoard.getLayout() != PermutationRank.Layout) {
+            throw new IllegalArgumentException("The distance table only covers " + PermutationRank.Layout + " boards");
+        }
+        DistanceTable theTable = (this.theTable != null) ? this.theTable : DistanceTable.getDefault();
+        SearchStats stats = new SearchStats( "table");
+        BoardLayout layout = startBoard.getLayout();
+
+        long packedBoard = startBoard.getPackedValue();
+        int distance = theTable.getDistance( packedBoard);
+        if( distance == DistanceTable.Unreachable) {
+            return stats.finish( new Solution( startBoard, startBoard, 0));
+        }
+
+        // Take a move to a board one closer to the final board, until it is reached
+        byte[] moves = new byte[ distance];
+        for( int i = 0; i < moves.length; i++) {
+            for( int fromIndex : layout.neighbourSquares[ layout.blankIndexOf( packedBoard)]) {
+                long newPackedBoard = layout.applyMove( packedBoard, fromIndex);
+                stats.nodesGenerated++;
+                if( theTable.getDistance( newPackedBoard) == distance - 1) {
+                    moves[ i] = (byte) fromIndex;
+                    packedBoard = newPackedBoard;
+                    distance--;
+                    break;
+                }
+            }
+        }
+        stats.nodesExpanded = moves.length;
+        return stats.finish( new Solution( startBoard, moves, moves.length));
+    }//end solve()
+}//end class TableSolver
@@ -0,0 +1,405 @@
+package tiles;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.lang.System;
+
+/**
+ * 8 Tiles puzzle, implemented as both text-based and graphical interfaces.
+ *
+ * Driver class to interact with user and trigger automatic search mode if desired.
+ */
+public class TilesDriver
+{
+    static final int DefaultCheckpointSeconds = 60;     // Time between saves of the search with --checkpoint
+    static final String[] SearchEngines = { "astar", "idastar", "bidirectional", "table", "parallel", "smastar",
+                                            "anytime"};    // Engines --engine can choose
+    static final String[] SearchHeuristics = { "manhattan", "linear", "pdb"};   // Heuristics --heuristic can choose
+
+    // Declare the solution, to be further initialized if we search for an automatic puzzle solution
+    Solution theSolution;               // Moves found by the automatic search
+    ArrayList<Integer> possibleMoves;   // List of possible moves from current board position
+    Board theBoard;                     // Current board being considered
+    int moveNumber = 1;                 // Enumerates total unique board positions explored
+    double searchWeight = SearchTree.OptimalWeight;     // Weight on the heuristic for the automatic search
+    String searchEngine = "astar";                      // Which PuzzleSolver to use for the automatic search
+    int searchThreads = Runtime.getRuntime().availableProcessors();     // Threads for the parallel engine
+    int randomBoardDimension = Board.DefaultDimension;                  // Rows and columns of a random board
+    String searchHeuristic = "manhattan";               // Which Heuristic the informed search engines use
+    SolutionCache solutionCache;                        // Distances kept from earlier solves, or null if off
+    boolean showStats = false;                          // Display the search statistics after solving
+    int nodeBudget = SmaStarSolver.DefaultNodeBudget;   // Most boards held at once by the smastar engine
+    Path checkpointFile;                                // File the astar engine saves its search to, or null
+    long checkpointIntervalMillis = DefaultCheckpointSeconds * 1000;    // Time between saves of the search
+    long deadlineMillis = AnytimeSolver.DefaultTimeLimitMillis;         // Time allowed for the anytime engine
+    int batchSize = 1;                                  // Most nodes the astar engine expands together
+
+
+    //-----------------------------------------------------------------------------------------
+    public static void main(String[] args) {
+        TilesDriver theDriver = new TilesDriver();
+        theDriver.readOptions( args);
+        theDriver.doIt();       // Chain off to allow sharing of class variables
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Handle command line options, each given as --name=value:
+    //    --engine=e   Search engine for the automatic search: astar (the default), idastar, bidirectional, table,
+    //                 parallel, smastar or anytime.
+    //                 IDA* uses very little memory, at the cost of trying some boards more than once.
+    //                 Bidirectional search needs no heuristic, and searches from both ends to meet in the middle.
+    //                 The table engine looks up exact distances made by DistanceTableBuilder, and does not search.
+    //                 The parallel engine spreads one A* search over several threads.
+    //                 SMA* searches like A* but never holds more boards than its budget, forgetting the worst.
+    //                 The anytime engine finds a solution fast and then better ones until its deadline, and gives
+    //                 the best found.  Solving here, not in a batch or server, displays each better one with how
+    //                 many times longer than the shortest it can be.
+    //                 Any other engine is an error.
+    //    --deadline=ms  Milliseconds the anytime engine is given to solve, 1000 by default.
+    //    --threads=n  Number of threads for the parallel engine, by default one per processor.
+    //    --budget=n   Most boards the smastar engine holds at once, by default 1048576.  It must be more than the
+    //                 number of moves in the shortest solution, and larger budgets search again less often.
+    //    --size=n     Number of rows and columns of a random starting board, from 2 to 5.  3 is the default.
+    //    --heuristic=h  Estimate of the moves left used by the astar, idastar, parallel and smastar engines:
+    //                 manhattan (the default), linear for Manhattan plus linear conflicts, or pdb for the additive
+    //                 pattern databases made by PatternDatabaseBuilder.  The stronger ones expand far fewer boards on hard puzzles.
+    //                 Any other heuristic is an error.
+    //    --weight=w   Weight on the heuristic for the A* search.  1 (the default) finds the shortest
+    //                 solution, while larger values such as 1.5 or 3 find one faster that may be longer.  For the
+    //                 anytime engine it is the weight of the first search, 3 unless a larger one is given.
+    //    --cache=n    Keep the distances of up to n boards from the shortest solutions found, so that later solves
+    //                 finish as soon as they reach one of them.  n is from 1 to 2^29.  Off by default.
+    //    --checkpoint=file  Save the astar engine's search to the file every so often, and carry on from the file if
+    //                 it already holds a search from the same board, so a long solve can be stopped and resumed.
+    //                 The file is deleted once the solve finishes.  Other engines cannot save their search, so
+    //                 giving this with them is an error.
+    //    --checkpoint-interval=s  Seconds between saves of the search, 60 by default.
+    //    --batch=n    Let the astar engine expand up to n nodes with the same priority together, estimating all
+    //                 their children in one batch, which the Vector API can speed up.  1 by default.
+    //    --stats      Display the search statistics after solving automatically: the boards generated, expanded
+    //                 and rejected as duplicates, the peak sizes, and the time spent in each phase.
+    // Other options are reported on standard error, so they never mix with results written to standard output, and
+    // ignored.
+    void readOptions( String[] args)
+    {
+        for( String option : args) {
+            if( option.startsWith("--engine=")) {
+                searchEngine = option.substring( "--engine=".length());
+                if( !Arrays.asList( SearchEngines).contains( searchEngine)) {
+                    throw new IllegalArgumentException("Unknown engine " + searchEngine + ", which must be one of " +
+                                                       String.join( ", ", SearchEngines));
+                }
+            }
+            else if( option.startsWith("--weight=")) {
+                searchWeight = Double.parseDouble( option.substring( "--weight=".length()));
+            }
+            else if( option.startsWith("--threads=")) {
+                searchThreads = Integer.parseInt( option.substring( "--threads=".length()));
+            }
+            else if( option.startsWith("--deadline=")) {
+                deadlineMillis = Long.parseLong( option.substring( "--deadline=".length()));
+            }
+            else if( option.startsWith("--budget=")) {
+                nodeBudget = Integer.parseInt( option.substring( "--budget=".length()));
+            }
+            else if( option.startsWith("--size=")) {
+                randomBoardDimension = Integer.parseInt( option.substring( "--size=".length()));
+            }
+            else if( option.startsWith("--heuristic=")) {
+                searchHeuristic = option.substring( "--heuristic=".length());
+                if( !Arrays.asList( SearchHeuristics).contains( searchHeuristic)) {
+                    throw new IllegalArgumentException("Unknown heuristic " + searchHeuristic +
+                                                       ", which must be one of " +
+                                                       String.join( ", ", SearchHeuristics));
+                }
+            }
+            else if( option.startsWith("--cache=")) {
+                solutionCache = new SolutionCache( Integer.parseInt( option.substring( "--cache=".length())));
+            }
+            else if( option.startsWith("--checkpoint=")) {
+                checkpointFile = Paths.get( option.substring( "--checkpoint=".length()));
+            }
+            else if( option.startsWith("--checkpoint-interval=")) {
+                checkpointIntervalMillis = Math.round( Double.parseDouble( option.substring(
+                                                       "--checkpoint-interval=".length())) * 1000);
+            }
+            else if( option.startsWith("--batch=")) {
+                batchSize = Integer.parseInt( option.substring( "--batch=".length()));
+            }
+            else if( option.equals("--stats")) {
+                showStats = true;
+            }
+            else {
+                System.err.println("Unknown option " + option + " ignored.");
+            }
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    void doIt() {
+
+        displayIdentifyingInformation();
+        displayInstructions();
+
+        theBoard = initializeBoard();
+        System.out.println("\nInitial board is: ");
+        displayTheBoard( moveNumber, theBoard);
+        moveNumber++;
+
+        String pieceToMove;                     // Used for interactive user input
+        Scanner userInput = new Scanner(System.in);  // User input for interactive play
+
+        boolean inInteractiveMode = true;     // Puzzle can be solved interactively or automatically
+
+        // Keep searching until solution is found or all possible moves are exhausted.  If at some point user input of
+        // 's' (for "solve") is entered, the loop enters "automatic solve the puzzle" mode that is no longer interactive.
+        while( theBoard.isFinished() != true) {
+
+            // Prompt for piece to move, 'x' to exit or 's' to solve puzzle
+            System.out.print("Piece to move: ");
+            pieceToMove = userInput.next();
+
+            if (pieceToMove.equals("s")) {
+                // Exit interactive mode
+                solvePuzzleAutomatically();
+                break;      // Upon returning break out of moves loop, to go display the solution if there is one.
+            }
+            else if( pieceToMove.equals("x")) {     // Exit program
+                System.out.println("Exiting program...\n");
+                System.exit( 1);
+            }
+
+            // Get current possible moves and use it to validate user input
+            possibleMoves = theBoard.findPossibleMoves();
+            boolean pieceToMoveIsValid = pieceToMoveIsOnValidMovesList( theBoard, pieceNumber( pieceToMove), possibleMoves);
+
+            // If we have a valid move make the move, establish it as the current search tree node, and display it
+            if( pieceToMoveIsValid) {
+                theBoard.movePiece( pieceNumber( pieceToMove));     // Make the move.  A later automatic solution starts from here.
+                System.out.println("\n");
+                // Display the board
+                displayTheBoard( moveNumber, theBoard);
+                moveNumber++;
+            }
+            else {
+                // Invalid move
+                System.out.println("*** Invalid move.  Please retry. \n");
+                continue;
+            }
+        }//end while( theBoard...
+
+        // Display a solution if there was one found by the automatic search
+        if( theBoard.isFinished() && theSolution != null) {
+            // Display the solution in order
+            theSolution.displaySolutionPath();
+        }
+
+        System.out.println("Done.\n");
+    }//end main()
+
+
+    //-----------------------------------------------------------------------------------------
+    public void displayIdentifyingInformation() {
+       System.out.println(  "Author: Dale Reed \n" +
+                            "Class: CS 342, Fall 2016 \n" +
+                            "Program: #3, 8 Tiles. \n" +
+                            "\n");
+    }
+
+    //-----------------------------------------------------------------------------------------
+    public void displayInstructions() {
+        System.out.println( "Welcome to the 8-tiles puzzle. \n" +
+                            "Place the tiles in ascending numerical order.  For each  \n" +
+                            "move enter the piece to be moved into the blank square, \n" +
+                            "or 0 to exit the program. \n" +
+                            "\n");
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public Board initializeBoard()
+    {
+        System.out.println( "Choose a game option: \n" +
+                            "  1. Start playing \n" +
+                            "  2. Set the starting configuration");
+
+        // Prompt for and get user input to initialize the board
+        Scanner userInput = new Scanner(System.in);  // Used to handle user input
+        int menuChoice = 1;
+        System.out.print("Enter your choice --> ");
+        menuChoice = userInput.nextInt();
+
+        // Setup the starting Board using either a provided string of 8 values, or using random values.
+        // Using random values may lead to an unsolvable board, of which there are many.
+        Board theBoard;     // Declare the board, to be initialized below
+        // Handle menu option to set the starting configuration
+        if( menuChoice == 2) {
+            System.out.println("Some boards such as 728045163 are impossible.");
+            System.out.println("Others such as 245386107 are possible.");
+            System.out.println("Larger boards separate the pieces with commas, such as 1,2,3,4,5,6,7,8,9,10,11,12,13,14,0,15");
+            System.out.print("Enter a string of 9 digits (including 0) for the board --> ");
+            String boardValues = userInput.next();
+            theBoard = new Board( boardValues);
+        }
+        else {
+            theBoard = new Board( randomBoardDimension);     // Default random board is created
+        }
+
+        return theBoard;
+    }//end initializeBoard()
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make the search engine chosen on the command line, sharing the solution cache if there is one.  The anytime
+    // engine tells no one about its better solutions, so nothing is written to the output of a batch or a server.
+    PuzzleSolver createSolver()
+    {
+        return createSolver( null);
+    }
+
+    //-----------------------------------------------------------------------------------------
+    // Make the search engine chosen on the command line, giving the anytime engine a listener, which can be null, to
+    // tell about each better solution
+    PuzzleSolver createSolver( AnytimeSolver.ImprovementListener theListener)
+    {
+        if( checkpointFile != null && ! searchEngine.equals("astar")) {
+            throw new IllegalArgumentException("--checkpoint only saves the astar engine's search, not " +
+                                               searchEngine);
+        }
+        PuzzleSolver theSolver;
+        if( searchEngine.equals("idastar")) {
+            theSolver = new IdaStarSolver( createHeuristic(), solutionCache);
+        }
+        else if( searchEngine.equals("bidirectional")) {
+            theSolver = new BidirectionalSolver();
+        }
+        else if( searchEngine.equals("table")) {
+            theSolver = new TableSolver();
+        }
+        else if( searchEngine.equals("parallel")) {
+            theSolver = new ParallelAStarSolver( searchThreads, createHeuristic());
+        }
+        else if( searchEngine.equals("smastar")) {
+            theSolver = new SmaStarSolver( nodeBudget, createHeuristic());
+        }
+        else if( searchEngine.equals("anytime")) {
+            theSolver = new AnytimeSolver( deadlineMillis, Math.max( searchWeight, AnytimeSolver.DefaultInitialWeight),
+                                           AnytimeSolver.DefaultWeightStep, createHeuristic(), theListener);
+        }
+        else {
+            AStarSolver theAStarSolver = new AStarSolver( searchWeight, createHeuristic(), solutionCache);
+            if( checkpointFile != null) {
+                theAStarSolver.setCheckpoint( checkpointFile, checkpointIntervalMillis);
+            }
+            theAStarSolver.setBatchSize( batchSize);
+            theSolver = theAStarSolver;
+        }
+        return (solutionCache == null) ? theSolver : new CachingSolver( theSolver, solutionCache);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Make the heuristic chosen on the command line
+    Heuristic createHeuristic()
+    {
+        if( searchHeuristic.equals("linear")) {
+            return new LinearConflictHeuristic();
+        }
+        else if( searchHeuristic.equals("pdb")) {
+            return new PatternDatabaseHeuristic();
+        }
+        return new ManhattanHeuristic();
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    void solvePuzzleAutomatically()
+    {
+        System.out.println("Solving puzzle automatically...........................");
+        // Search from the current board, displaying each better solution the anytime engine finds on the way
+        PuzzleSolver theSolver = createSolver( theImprovedSolution -> System.out.printf(
+                "Found %d moves, at most %.2f times the shortest, after %d boards%n",
+                theImprovedSolution.getNumberOfMoves(), theImprovedSolution.getSuboptimalityBound(),
+                theImprovedSolution.getNodesExpanded()));
+        theSolution = theSolver.solve( theBoard);
+        if( showStats && theSolution.getStats() != null) {
+            System.out.println( theSolution.getStats());
+        }
+
+        // Count the boards tried, used to display total moves tried if there is no solution
+        moveNumber += theSolution.getNodesExpanded();
+
+        if( theSolution.isSolved()) {
+            theBoard = theSolution.getFinalBoard();
+        }
+        else {
+            // We have exhausted all moves, or the parity of the pieces showed there was no need to, or the deadline
+            // passed.  The solution holds the closest board the search found.
+            System.out.println("\n");
+            if( ! theBoard.isSolvable()) {
+                System.out.println("That puzzle is impossible to solve, since no moves can bring its pieces back \n" +
+                        "into order.  Best board found was: \n" +
+                        theSolution.getClosestBoard() + "\n" +
+                        "Exiting program. \n");
+            }
+            else if( searchEngine.equals("anytime")) {
+                System.out.println("No solution was found in " + deadlineMillis + " ms.  Best board found was: \n" +
+                        theSolution.getClosestBoard() + "\n" +
+                        "Exiting program. \n");
+            }
+            else {
+                System.out.println("All " + moveNumber + " moves have been tried. \n" +
+                        "That puzzle is impossible to solve.  Best board found was: \n" +
+                        theSolution.getClosestBoard() + "\n" +
+                        "Exiting program. \n");
+            }
+            System.exit( 0);
+        }
+    }//end solvePuzzleAutomatically()
+
+
+    //-----------------------------------------------------------------------------------------
+    void displayTheBoard(int moveNumber, Board theBoard)
+    {
+        System.out.println(moveNumber + ". \n" + theBoard);
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    // Convert the user's input to a piece number, or -1 if it is not a number so it matches no piece
+    int pieceNumber( String pieceToMove)
+    {
+        try {
+            return Integer.parseInt( pieceToMove);
+        }
+        catch( NumberFormatException e) {
+            return -1;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    boolean pieceToMoveIsOnValidMovesList(
+                Board theBoard,
+                int pieceToMove,
+                ArrayList<Integer> possibleMoves)
+    {
+        boolean pieceToMoveIsValid = false;
+        for (int i : possibleMoves) {
+            int pieceAtIndex = theBoard.getPieceAt(i);
+            if (pieceToMove == pieceAtIndex) {
+                // Desired move is one of the possibilities, so move is valid
+                pieceToMoveIsValid = true;
+                break;
+            }
+        }
+
+        return pieceToMoveIsValid;
+    }
+
+}//end class TilesDriver
@@ -0,0 +1,91 @@
+package tiles;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batch kernel for ManhattanHeuristic using the incubating Vector API, which works on several moves at once.  It is
+ * only built with the vector Maven profile, and only loaded when the JVM has the jdk.incubator.vector module:
+ *        mvn -Pvector package
+ *        java --add-modules jdk.incubator.vector -jar solver/target/tiles-solver-1.0-SNAPSHOT.jar --batch=16
+ *
+ * Each lane holds one move.  The blank is found with the same shifts and masks as BoardLayout.blankIndexOf(), and
+ * since that leaves a single bit set, converting it to a double puts its position in the exponent, as there is no
+ * trailing zeros count on vectors.  The piece that moves is shifted out of the board, and the change in its
+ * distance is gathered from the layout's manhattanDelta table, flattened into one array.  Moves left over at the
+ * end of a batch are done one at a time.
+ */
+class VectorManhattanKernel implements ManhattanHeuristic.BatchKernel {
+    private static final VectorSpecies<Long> LongSpecies = LongVector.SPECIES_256;
+    private static final VectorSpecies<Integer> IntSpecies = IntVector.SPECIES_128;     // Same number of lanes
+    private static final int DoubleExponentShift = 52;
+    private static final int DoubleExponentBias = 1023;
+
+    // The manhattanDelta table of each layout indexed by (piece * boardSize + from) * boardSize + to, and the lowest
+    // bit of every square of its packed boards, made the first time each dimension is used
+    private static final int[][] FlatDeltas = new int[ BoardLayout.MaximumDimension + 1][];
+    private static final long[] LowSquareBits = new long[ BoardLayout.MaximumDimension + 1];
+
+
+    //-----------------------------------------------------------------------------------------
+    // Flatten a layout's table.  Two threads may both do it, which only makes the same table twice.
+    private static int[] flatDeltasFor( BoardLayout layout)
+    {
+        int[] flatDeltas = FlatDeltas[ layout.dimension];
+        if( flatDeltas == null) {
+            int boardSize = layout.boardSize;
+            long lowBits = 0;
+            flatDeltas = new int[ boardSize * boardSize * boardSize];
+            for( int piece=0; piece< boardSize; piece++) {
+                lowBits |= 1L << (piece * BoardLayout.BitsPerSquare);
+                for( int from=0; from< boardSize; from++) {
+                    System.arraycopy( layout.manhattanDelta[ piece][ from], 0, flatDeltas,
+                                      (piece * boardSize + from) * boardSize, boardSize);
+                }
+            }
+            LowSquareBits[ layout.dimension] = lowBits;
+            FlatDeltas[ layout.dimension] = flatDeltas;
+        }
+        return flatDeltas;
+    }
+
+
+    //-----------------------------------------------------------------------------------------
+    public void estimateAfterMoves( BoardLayout layout, long[] packedBoards, int[] heuristicValues, int[] fromIndices,
+                                    int count)
+    {
+        int[] flatDeltas = flatDeltasFor( layout);
+        long lowSquareBits = LowSquareBits[ layout.dimension];
+        int[] tableIndices = new int[ IntSpecies.length()];
+        int vectorCount = IntSpecies.loopBound( count);
+        int i = 0;
+        for( ; i < vectorCount; i += IntSpecies.length()) {
+            LongVector boards = LongVector.fromArray( LongSpecies, packedBoards, i);
+            LongVector from = (LongVector) IntVector.fromArray( IntSpecies, fromIndices, i)
+                                                    .convertShape( VectorOperators.I2L, LongSpecies, 0);
+
+            // Find the bit position of the blank square, which is 4 times its index
+            LongVector anyBitSet = boards.or( boards.lanewise( VectorOperators.LSHR, 1));
+            anyBitSet = anyBitSet.or( anyBitSet.lanewise( VectorOperators.LSHR, 2));
+            LongVector blankBit = anyBitSet.not().and( lowSquareBits);
+            LongVector blankShift = blankBit.convert( VectorOperators.L2D, 0).reinterpretAsLongs()
+                                            .lanewise( VectorOperators.LSHR, DoubleExponentShift)
+                                            .sub( DoubleExponentBias);
+
+            // Look up the change for the piece that moves from its square to the blank
+            LongVector piece = boards.lanewise( VectorOperators.LSHR, from.lanewise( VectorOperators.LSHL, 2))
+                                     .and( BoardLayout.SquareMask);
+            LongVector tableIndex = piece.mul( layout.boardSize).add( from).mul( layout.boardSize)
+                                         .add( blankShift.lanewise( VectorOperators.LSHR, 2));
+            ((IntVector) tableIndex.convertShape( VectorOperators.L2I, IntSpecies, 0)).intoArray( tableIndices, 0);
+            IntVector.fromArray( IntSpecies, heuristicValues, i)
+                     .add( IntVector.fromArray( IntSpecies, flatDeltas, 0, tableIndices, 0))
+                     .intoArray( heuristicValues, i);
+        }
+        for( ; i < count; i++) {
+            heuristicValues[ i] = layout.heuristicAfterMove( packedBoards[ i], heuristicValues[ i], fromIndices[ i]);
+        }
+    }//end estimateAfterMoves()
+}//end class VectorManhattanKernel